@@ -0,0 +1,95 @@
+package com.gpb.metadata.ingestion.cache;
+
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.cache.Cache;
+
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.lang.IgniteBiPredicate;
+import org.apache.ignite.lang.IgniteClosure;
+
+/**
+ * Отдельный Ignite кэш на scope: runtime_state_TABLE_<schema>_<service> и т.п.
+ */
+public class DedicatedScopedCache<K, V> implements ScopedCache<K, V> {
+    private final IgniteCache<K, V> cache;
+
+    public DedicatedScopedCache(IgniteCache<K, V> cache) {
+        this.cache = cache;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName();
+    }
+
+    @Override
+    public V get(K key) {
+        return cache.get(key);
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<K> keys) {
+        return cache.getAll(keys instanceof Set<K> set ? set : new HashSet<>(keys));
+    }
+
+    @Override
+    public void put(K key, V value) {
+        cache.put(key, value);
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        cache.putAll(entries);
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys) {
+        cache.removeAll(keys instanceof Set<K> set ? set : new HashSet<>(keys));
+    }
+
+    @Override
+    public long size() {
+        return cache.sizeLong();
+    }
+
+    @Override
+    public <R> void scan(IgniteBiPredicate<K, V> filter,
+                         IgniteClosure<Cache.Entry<K, V>, R> transformer,
+                         Consumer<R> consumer) {
+        try (QueryCursor<R> cursor = cache.query(new ScanQuery<>(filter), transformer)) {
+            for (R value : cursor) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public <R> void scanBinary(IgniteBiPredicate<Object, BinaryObject> filter,
+                               IgniteClosure<Cache.Entry<Object, BinaryObject>, R> transformer,
+                               Consumer<R> consumer) {
+        IgniteCache<Object, BinaryObject> binary = cache.withKeepBinary();
+        try (QueryCursor<R> cursor = binary.query(new ScanQuery<>(filter), transformer)) {
+            for (R value : cursor) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        cache.clear();
+    }
+
+    @Override
+    public void destroy() {
+        cache.destroy();
+    }
+}
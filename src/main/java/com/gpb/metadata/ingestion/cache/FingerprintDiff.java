@@ -0,0 +1,147 @@
+package com.gpb.metadata.ingestion.cache;
+
+import java.util.*;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+
+/**
+ * Сверка fingerprint'ов БД с runtime состоянием за один проход (hash join).
+ *
+ * Принимает карту EntityId -> hash runtime состояния и по одному fingerprint'у
+ * из БД. Найденные ключи удаляются из карты, поэтому после прохода в ней
+ * остаются только удалённые записи.
+ *
+ * {@link #partitioned} делит обе стороны на партиции по hash(parentFqn) и
+ * сравнивает их параллельно: ключи одной схемы/БД всегда в одной партиции.
+ */
+public class FingerprintDiff {
+    private final Map<EntityId, String> runtimeHashes;
+    private final Set<EntityId> newKeys = new HashSet<>();
+    private final Set<EntityId> modifiedKeys = new HashSet<>();
+
+    public FingerprintDiff(Map<EntityId, String> runtimeHashes) {
+        this.runtimeHashes = runtimeHashes;
+    }
+
+    public void accept(EntityId key, EntityFingerprint fingerprint) {
+        if (!runtimeHashes.containsKey(key)) {
+            newKeys.add(key);
+            return;
+        }
+
+        String runtimeHash = runtimeHashes.remove(key);
+        if (!Objects.equals(runtimeHash, fingerprint.getHashData())) {
+            modifiedKeys.add(key);
+        }
+    }
+
+    /**
+     * Параллельная сверка по партициям на переданном пуле.
+     * Результат эквивалентен последовательному проходу по source.
+     */
+    public static FingerprintDiff partitioned(Map<EntityId, String> runtimeHashes,
+                                              Map<EntityId, EntityFingerprint> source,
+                                              ForkJoinPool pool) {
+        Partitioned diff = partitioned(runtimeHashes, pool);
+        diff.acceptAll(source);
+        return diff.merge();
+    }
+
+    public static Partitioned partitioned(Map<EntityId, String> runtimeHashes, ForkJoinPool pool) {
+        return new Partitioned(runtimeHashes, pool);
+    }
+
+    /**
+     * Сверка, разбитая на партиции по hash(parentFqn). Fingerprint'ы БД
+     * передаются пачками (например, по мере чтения курсора). Каждая задача
+     * пула сама выбирает из карты runtime и из пачки ключи своей партиции:
+     * раскладка по партициям не выполняется в одном потоке, иначе она
+     * стоила бы столько же, сколько сама сверка.
+     */
+    public static final class Partitioned {
+        private final List<FingerprintDiff> parts;
+        private final ForkJoinPool pool;
+
+        private Partitioned(Map<EntityId, String> runtimeHashes, ForkJoinPool pool) {
+            this.pool = pool;
+            int partitions = Math.max(1, pool.getParallelism());
+            // Одна партиция — обычный проход, без копирования карты
+            this.parts = partitions == 1
+                    ? List.of(new FingerprintDiff(runtimeHashes))
+                    : pool.submit(() -> IntStream.range(0, partitions)
+                            .parallel()
+                            .mapToObj(i -> new FingerprintDiff(select(runtimeHashes, i, partitions)))
+                            .toList()
+                    ).join();
+        }
+
+        public void acceptAll(Map<EntityId, EntityFingerprint> batch) {
+            if (batch.isEmpty()) {
+                return;
+            }
+            if (parts.size() == 1) {
+                batch.forEach(parts.get(0)::accept);
+                return;
+            }
+
+            int partitions = parts.size();
+            pool.submit(() -> IntStream.range(0, partitions)
+                    .parallel()
+                    .forEach(i -> {
+                        FingerprintDiff part = parts.get(i);
+                        batch.forEach((key, fingerprint) -> {
+                            if (partitionOf(key, partitions) == i) {
+                                part.accept(key, fingerprint);
+                            }
+                        });
+                    })
+            ).join();
+        }
+
+        public FingerprintDiff merge() {
+            if (parts.size() == 1) {
+                return parts.get(0);
+            }
+            FingerprintDiff merged = new FingerprintDiff(new HashMap<>());
+            for (FingerprintDiff part : parts) {
+                merged.newKeys.addAll(part.newKeys);
+                merged.modifiedKeys.addAll(part.modifiedKeys);
+                merged.runtimeHashes.putAll(part.runtimeHashes);
+            }
+            return merged;
+        }
+    }
+
+    public static int partitionOf(EntityId key, int partitions) {
+        return Math.floorMod(Objects.hashCode(key.getParentFqn()), partitions);
+    }
+
+    private static <V> Map<EntityId, V> select(Map<EntityId, V> source, int partition, int partitions) {
+        Map<EntityId, V> part = new HashMap<>();
+        source.forEach((key, value) -> {
+            if (partitionOf(key, partitions) == partition) {
+                part.put(key, value);
+            }
+        });
+        return part;
+    }
+
+    public Set<EntityId> getNewKeys() {
+        return newKeys;
+    }
+
+    public Set<EntityId> getModifiedKeys() {
+        return modifiedKeys;
+    }
+
+    /**
+     * Ключи runtime состояния, не встретившиеся в БД. Корректно только после
+     * того, как переданы все fingerprint'ы сравниваемой области.
+     */
+    public Set<EntityId> getDeletedKeys() {
+        return runtimeHashes.keySet();
+    }
+}
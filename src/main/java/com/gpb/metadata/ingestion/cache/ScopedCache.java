@@ -0,0 +1,76 @@
+package com.gpb.metadata.ingestion.cache;
+
+import java.util.AbstractMap;
+import java.util.Collection;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.cache.Cache;
+
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.lang.IgniteBiPredicate;
+import org.apache.ignite.lang.IgniteClosure;
+
+/**
+ * Кэш состояния одного сервиса (scope = schema_service).
+ *
+ * Реализация либо владеет отдельным Ignite кэшем ({@link DedicatedScopedCache}),
+ * либо хранит записи в общем кэше типа объектов с составным ключом
+ * ({@link SharedScopedCache}). Операции видят только записи своего scope.
+ */
+public interface ScopedCache<K, V> {
+
+    String getName();
+
+    V get(K key);
+
+    Map<K, V> getAll(Collection<K> keys);
+
+    void put(K key, V value);
+
+    void putAll(Map<K, V> entries);
+
+    void removeAll(Collection<K> keys);
+
+    long size();
+
+    /**
+     * Есть ли в scope хотя бы одна запись (без полного подсчёта)
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Проход по записям scope. filter и transformer выполняются на узлах
+     * кластера, поэтому не должны захватывать несериализуемые объекты.
+     */
+    <R> void scan(IgniteBiPredicate<K, V> filter,
+                  IgniteClosure<Cache.Entry<K, V>, R> transformer,
+                  Consumer<R> consumer);
+
+    /**
+     * Проход по записям scope без десериализации значений (withKeepBinary).
+     * filter/transformer получают ключ сущности (BinaryObject или примитив)
+     * и значение как BinaryObject; поля читаются через field(name).
+     */
+    <R> void scanBinary(IgniteBiPredicate<Object, BinaryObject> filter,
+                        IgniteClosure<Cache.Entry<Object, BinaryObject>, R> transformer,
+                        Consumer<R> consumer);
+
+    default void forEach(BiConsumer<K, V> consumer) {
+        scan(null, entry -> new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()),
+                entry -> consumer.accept(entry.getKey(), entry.getValue()));
+    }
+
+    /**
+     * Удалить все записи scope
+     */
+    void clear();
+
+    /**
+     * Удалить scope целиком (для отдельного кэша — уничтожить кэш)
+     */
+    void destroy();
+}
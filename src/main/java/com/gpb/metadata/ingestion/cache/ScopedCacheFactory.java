@@ -0,0 +1,138 @@
+package com.gpb.metadata.ingestion.cache;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import javax.cache.Cache;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.gpb.metadata.ingestion.config.IgniteConfig;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Создаёт кэши состояния сервиса в режиме metadata.sync.shared-caches.
+ *
+ * false — отдельный кэш на сервис: prefix + scope (прежнее поведение);
+ * true  — один общий кэш на prefix (prefix + "shared") с составным ключом
+ *         {@link ScopedKey}. Создание и удаление сервиса не меняют топологию
+ *         кэшей, поэтому не вызывают exchange в кластере.
+ *
+ * При включении общего режима содержимое отдельного кэша сервиса переносится
+ * в общий кэш при первом обращении, отдельный кэш удаляется.
+ */
+@Component
+@Slf4j
+public class ScopedCacheFactory {
+    private static final String SHARED_SUFFIX = "shared";
+    // Счётчики записей scope в общем кэше: scope -> SharedScopedCache.ScopeSize
+    private static final String SIZES_SUFFIX = "shared_sizes";
+    private static final int MIGRATION_BATCH_SIZE = 10_000;
+
+    private final Ignite ignite;
+    private final MetadataSyncProperties syncProperties;
+
+    public ScopedCacheFactory(@Qualifier("igniteInstance") Ignite ignite, MetadataSyncProperties syncProperties) {
+        this.ignite = ignite;
+        this.syncProperties = syncProperties;
+    }
+
+    public <K, V> ScopedCache<K, V> getOrCreate(String prefix, String scope) {
+        return getOrCreate(prefix, scope, IgniteConfig.PERSISTENT_REGION);
+    }
+
+    /**
+     * @param region регион памяти кэша (см. {@link IgniteConfig}). Регион
+     *               задаётся только при создании кэша.
+     */
+    public <K, V> ScopedCache<K, V> getOrCreate(String prefix, String scope, String region) {
+        String dedicatedName = prefix + scope;
+
+        if (!syncProperties.isSharedCaches()) {
+            CacheConfiguration<K, V> cfg = new CacheConfiguration<>();
+            cfg.setName(dedicatedName);
+            cfg.setCacheMode(CacheMode.REPLICATED);
+            cfg.setDataRegionName(region);
+            return new DedicatedScopedCache<>(ignite.getOrCreateCache(cfg));
+        }
+
+        CacheConfiguration<ScopedKey<K>, V> cfg = new CacheConfiguration<>();
+        cfg.setName(prefix + SHARED_SUFFIX);
+        cfg.setCacheMode(CacheMode.REPLICATED);
+        cfg.setDataRegionName(region);
+        IgniteCache<ScopedKey<K>, V> shared = ignite.getOrCreateCache(cfg);
+
+        int partition = ignite.affinity(cfg.getName()).partition(scope);
+        ScopedCache<K, V> cache = new SharedScopedCache<>(shared, getOrCreateSizes(prefix, region), scope, partition);
+        migrateDedicated(dedicatedName, cache);
+        return cache;
+    }
+
+    /**
+     * Существует ли состояние scope (без создания кэшей)
+     */
+    public boolean exists(String prefix, String scope) {
+        return syncProperties.isSharedCaches()
+                ? ignite.cache(prefix + SHARED_SUFFIX) != null
+                : ignite.cache(prefix + scope) != null;
+    }
+
+    /**
+     * Удалить состояние scope: отдельный кэш уничтожается, в общем кэше
+     * удаляются только записи scope
+     */
+    public void destroy(String prefix, String scope) {
+        if (ignite.cache(prefix + scope) != null) {
+            ignite.destroyCache(prefix + scope);
+        }
+        IgniteCache<ScopedKey<Object>, Object> shared = ignite.cache(prefix + SHARED_SUFFIX);
+        if (syncProperties.isSharedCaches() && shared != null) {
+            int partition = ignite.affinity(shared.getName()).partition(scope);
+            new SharedScopedCache<>(shared, getOrCreateSizes(prefix, IgniteConfig.PERSISTENT_REGION), scope, partition)
+                    .destroy();
+        }
+    }
+
+    /**
+     * Регион задаётся только при создании: счётчики живут в регионе общего кэша
+     */
+    private IgniteCache<String, SharedScopedCache.ScopeSize> getOrCreateSizes(String prefix, String region) {
+        CacheConfiguration<String, SharedScopedCache.ScopeSize> cfg = new CacheConfiguration<>();
+        cfg.setName(prefix + SIZES_SUFFIX);
+        cfg.setCacheMode(CacheMode.REPLICATED);
+        cfg.setDataRegionName(region);
+        return ignite.getOrCreateCache(cfg);
+    }
+
+    private <K, V> void migrateDedicated(String dedicatedName, ScopedCache<K, V> target) {
+        IgniteCache<K, V> dedicated = ignite.cache(dedicatedName);
+        if (dedicated == null) {
+            return;
+        }
+
+        Map<K, V> batch = new HashMap<>();
+        long migrated = 0;
+        for (Cache.Entry<K, V> entry : dedicated) {
+            batch.put(entry.getKey(), entry.getValue());
+            if (batch.size() >= MIGRATION_BATCH_SIZE) {
+                target.putAll(batch);
+                migrated += batch.size();
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            target.putAll(batch);
+            migrated += batch.size();
+        }
+
+        ignite.destroyCache(dedicatedName);
+        log.info("Migrated cache {} into shared cache {}: {} entries", dedicatedName, target.getName(), migrated);
+    }
+}
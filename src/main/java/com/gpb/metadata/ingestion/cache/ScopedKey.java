@@ -0,0 +1,24 @@
+package com.gpb.metadata.ingestion.cache;
+
+import java.io.Serializable;
+
+import org.apache.ignite.cache.affinity.AffinityKeyMapped;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Ключ общего кэша: scope (schema_service) + ключ сущности. Все записи
+ * одного scope попадают в одну партицию, поэтому проход по сервису читает
+ * только её.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScopedKey<K> implements Serializable {
+    @AffinityKeyMapped
+    private String scope;
+
+    private K key;
+}
@@ -0,0 +1,320 @@
+package com.gpb.metadata.ingestion.cache;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import javax.cache.Cache;
+import javax.cache.processor.EntryProcessorResult;
+import javax.cache.processor.MutableEntry;
+
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.cache.CacheEntryProcessor;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.lang.IgniteBiPredicate;
+import org.apache.ignite.lang.IgniteClosure;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Записи одного scope в общем кэше типа объектов (runtime_state_TABLE_shared и т.п.).
+ * Проход и очистка выполняются по единственной партиции scope.
+ *
+ * Размер scope хранится счётчиком в кэше sizes ({@link ScopeSize}). Запись
+ * данных и изменение счётчика — разные операции, поэтому запись окружена
+ * отметками: до invokeAll увеличивается started, после — применяется
+ * изменение и увеличивается finished. Пока started != finished (запись идёт
+ * или узел упал между отметками) счётчику не доверяют: размер считается
+ * проходом по партиции и сохраняется, только если счётчик за время прохода
+ * не менялся.
+ */
+public class SharedScopedCache<K, V> implements ScopedCache<K, V> {
+    private static final int CLEAR_BATCH_SIZE = 10_000;
+
+    private final IgniteCache<ScopedKey<K>, V> cache;
+    private final IgniteCache<String, ScopeSize> sizes;
+    private final String scope;
+    private final int partition;
+
+    public SharedScopedCache(IgniteCache<ScopedKey<K>, V> cache,
+                             IgniteCache<String, ScopeSize> sizes,
+                             String scope,
+                             int partition) {
+        this.cache = cache;
+        this.sizes = sizes;
+        this.scope = scope;
+        this.partition = partition;
+    }
+
+    @Override
+    public String getName() {
+        return cache.getName() + "[" + scope + "]";
+    }
+
+    @Override
+    public V get(K key) {
+        return cache.get(new ScopedKey<>(scope, key));
+    }
+
+    @Override
+    public Map<K, V> getAll(Collection<K> keys) {
+        Map<K, V> result = new HashMap<>();
+        cache.getAll(wrap(keys)).forEach((key, value) -> result.put(key.getKey(), value));
+        return result;
+    }
+
+    @Override
+    public void put(K key, V value) {
+        putAll(Map.of(key, value));
+    }
+
+    @Override
+    public void putAll(Map<K, V> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        Map<ScopedKey<K>, Put<K, V>> processors = new HashMap<>();
+        entries.forEach((key, value) -> processors.put(new ScopedKey<>(scope, key), new Put<>(value)));
+        sizes.invoke(scope, new BeginWrite());
+        sizes.invoke(scope, new FinishWrite(countChanged(cache.invokeAll(processors))));
+    }
+
+    @Override
+    public void removeAll(Collection<K> keys) {
+        if (keys.isEmpty()) {
+            return;
+        }
+        sizes.invoke(scope, new BeginWrite());
+        sizes.invoke(scope, new FinishWrite(-countChanged(cache.invokeAll(wrap(keys), new Remove<>()))));
+    }
+
+    @Override
+    public long size() {
+        ScopeSize size = sizes.get(scope);
+        if (size != null && size.isExact()) {
+            return size.getCount();
+        }
+        long[] count = {0};
+        scanBinary(null, entry -> Boolean.TRUE, ignored -> count[0]++);
+        sizes.invoke(scope, new Recount(size, count[0]));
+        return count[0];
+    }
+
+    /**
+     * По точному счётчику, иначе проход по партиции scope до первой записи
+     */
+    @Override
+    public boolean isEmpty() {
+        ScopeSize size = sizes.get(scope);
+        if (size != null && size.isExact()) {
+            return size.getCount() == 0;
+        }
+        String scope = this.scope;
+        ScanQuery<ScopedKey<K>, V> query = new ScanQuery<ScopedKey<K>, V>((key, value) -> scope.equals(key.getScope()))
+                .setPartition(partition)
+                .setPageSize(1);
+        try (QueryCursor<Cache.Entry<ScopedKey<K>, V>> cursor = cache.query(query)) {
+            Iterator<Cache.Entry<ScopedKey<K>, V>> iterator = cursor.iterator();
+            return !iterator.hasNext();
+        }
+    }
+
+    private static <K> long countChanged(Map<K, EntryProcessorResult<Boolean>> results) {
+        long changed = 0;
+        for (EntryProcessorResult<Boolean> result : results.values()) {
+            if (Boolean.TRUE.equals(result.get())) {
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public <R> void scan(IgniteBiPredicate<K, V> filter,
+                         IgniteClosure<Cache.Entry<K, V>, R> transformer,
+                         Consumer<R> consumer) {
+        String scope = this.scope;
+        ScanQuery<ScopedKey<K>, V> query = new ScanQuery<ScopedKey<K>, V>((key, value) ->
+                scope.equals(key.getScope()) && (filter == null || filter.apply(key.getKey(), value)))
+                .setPartition(partition);
+
+        try (QueryCursor<R> cursor = cache.query(query, entry -> transformer.apply(
+                new UnwrappedEntry<>(entry.getKey().getKey(), entry.getValue())))) {
+            for (R value : cursor) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public <R> void scanBinary(IgniteBiPredicate<Object, BinaryObject> filter,
+                               IgniteClosure<Cache.Entry<Object, BinaryObject>, R> transformer,
+                               Consumer<R> consumer) {
+        String scope = this.scope;
+        IgniteCache<BinaryObject, BinaryObject> binary = cache.withKeepBinary();
+        ScanQuery<BinaryObject, BinaryObject> query = new ScanQuery<BinaryObject, BinaryObject>((key, value) ->
+                scope.equals(key.field("scope")) && (filter == null || filter.apply(key.field("key"), value)))
+                .setPartition(partition);
+
+        try (QueryCursor<R> cursor = binary.query(query, entry -> transformer.apply(
+                new UnwrappedEntry<>(entry.getKey().field("key"), entry.getValue())))) {
+            for (R value : cursor) {
+                consumer.accept(value);
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        List<K> keys = new ArrayList<>();
+        scan(null, Cache.Entry::getKey, keys::add);
+
+        for (int from = 0; from < keys.size(); from += CLEAR_BATCH_SIZE) {
+            cache.removeAll(wrap(keys.subList(from, Math.min(from + CLEAR_BATCH_SIZE, keys.size()))));
+        }
+        // Запись, начатая во время очистки, завершится с finished > started
+        // и счётчик будет пересчитан
+        sizes.put(scope, new ScopeSize(0, 0, 0));
+    }
+
+    @Override
+    public void destroy() {
+        clear();
+        sizes.remove(scope);
+    }
+
+    private Set<ScopedKey<K>> wrap(Collection<K> keys) {
+        Set<ScopedKey<K>> wrapped = new HashSet<>();
+        keys.forEach(key -> wrapped.add(new ScopedKey<>(scope, key)));
+        return wrapped;
+    }
+
+    private record UnwrappedEntry<K, V>(K key, V value) implements Cache.Entry<K, V> {
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public <T> T unwrap(Class<T> clazz) {
+            if (clazz.isAssignableFrom(getClass())) {
+                return clazz.cast(this);
+            }
+            throw new IllegalArgumentException("Unwrapping to " + clazz + " is not supported");
+        }
+    }
+
+    /**
+     * Записать значение; результат — ключа раньше не было
+     */
+    @AllArgsConstructor
+    private static final class Put<K, V> implements CacheEntryProcessor<ScopedKey<K>, V, Boolean> {
+        private final V value;
+
+        @Override
+        public Boolean process(MutableEntry<ScopedKey<K>, V> entry, Object... arguments) {
+            boolean created = !entry.exists();
+            entry.setValue(value);
+            return created;
+        }
+    }
+
+    /**
+     * Удалить ключ; результат — ключ существовал
+     */
+    private static final class Remove<K, V> implements CacheEntryProcessor<ScopedKey<K>, V, Boolean> {
+        @Override
+        public Boolean process(MutableEntry<ScopedKey<K>, V> entry, Object... arguments) {
+            boolean existed = entry.exists();
+            if (existed) {
+                entry.remove();
+            }
+            return existed;
+        }
+    }
+
+    /**
+     * Счётчик записей scope. count < 0 — не посчитан. Точен, только если
+     * посчитан и все начатые записи завершены (started == finished).
+     *
+     * Классы, которые передаются в Ignite (значения и processor'ы), не
+     * record: BinaryMarshaller не умеет записывать поля record.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    static final class ScopeSize implements Serializable {
+        private long count;
+        private long started;
+        private long finished;
+
+        boolean isExact() {
+            return count >= 0 && started == finished;
+        }
+    }
+
+    /**
+     * Отметка начала записи; без счётчика создаёт непосчитанный
+     */
+    private static final class BeginWrite implements CacheEntryProcessor<String, ScopeSize, Void> {
+        @Override
+        public Void process(MutableEntry<String, ScopeSize> entry, Object... arguments) {
+            ScopeSize size = entry.exists() ? entry.getValue() : new ScopeSize(-1, 0, 0);
+            entry.setValue(new ScopeSize(size.getCount(), size.getStarted() + 1, size.getFinished()));
+            return null;
+        }
+    }
+
+    /**
+     * Завершение записи: изменить посчитанный счётчик на delta
+     */
+    @AllArgsConstructor
+    private static final class FinishWrite implements CacheEntryProcessor<String, ScopeSize, Void> {
+        private final long delta;
+
+        @Override
+        public Void process(MutableEntry<String, ScopeSize> entry, Object... arguments) {
+            ScopeSize size = entry.exists() ? entry.getValue() : new ScopeSize(-1, 0, 0);
+            long count = size.getCount() < 0 ? -1 : Math.max(0, size.getCount() + delta);
+            entry.setValue(new ScopeSize(count, size.getStarted(), size.getFinished() + 1));
+            return null;
+        }
+    }
+
+    /**
+     * Сохранить результат прохода, если счётчик не менялся с момента чтения
+     * (observed). Незавершённые к этому моменту записи считаются оборванными.
+     */
+    @AllArgsConstructor
+    private static final class Recount implements CacheEntryProcessor<String, ScopeSize, Void> {
+        private final ScopeSize observed;
+        private final long count;
+
+        @Override
+        public Void process(MutableEntry<String, ScopeSize> entry, Object... arguments) {
+            ScopeSize current = entry.exists() ? entry.getValue() : null;
+            if (Objects.equals(current, observed)) {
+                long started = observed == null ? 0 : observed.getStarted();
+                entry.setValue(new ScopeSize(count, started, started));
+            }
+            return null;
+        }
+    }
+}
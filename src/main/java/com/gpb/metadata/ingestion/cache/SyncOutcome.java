@@ -0,0 +1,38 @@
+package com.gpb.metadata.ingestion.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.model.Metadata;
+
+/**
+ * Итог отправки одной группы сущностей в ОРД. Заполняется из success/error
+ * callback'ов запросов (потокобезопасно) и затем фиксируется в runtime
+ * состоянии одной пачкой.
+ */
+public class SyncOutcome<T extends Metadata> {
+    private final Map<EntityId, T> accepted = new ConcurrentHashMap<>();
+    private final Map<EntityId, String> failed = new ConcurrentHashMap<>();
+
+    public void accepted(T metadata) {
+        accepted.put(metadata.getId(), metadata);
+    }
+
+    public void failed(T metadata, Throwable error) {
+        failed.put(metadata.getId(), String.valueOf(error.getMessage()));
+    }
+
+    public void failed(T metadata, String error) {
+        failed.put(metadata.getId(), error);
+    }
+
+    public Map<EntityId, T> getAccepted() {
+        return Collections.unmodifiableMap(accepted);
+    }
+
+    public Map<EntityId, String> getFailed() {
+        return Collections.unmodifiableMap(failed);
+    }
+}
@@ -1,25 +1,49 @@
 package com.gpb.metadata.ingestion.config;
 
-import java.util.Arrays;
-
 import org.apache.ignite.Ignite;
-import org.apache.ignite.Ignition;
+import org.apache.ignite.IgniteCheckedException;
+import org.apache.ignite.IgniteSpring;
 import org.apache.ignite.cluster.ClusterState;
 import org.apache.ignite.configuration.DataRegionConfiguration;
 import org.apache.ignite.configuration.DataStorageConfiguration;
 import org.apache.ignite.configuration.IgniteConfiguration;
 import org.apache.ignite.spi.communication.tcp.TcpCommunicationSpi;
 import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.TcpDiscoveryIpFinder;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.sharedfs.TcpDiscoverySharedFsIpFinder;
 import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import com.gpb.metadata.ingestion.properties.IgniteClusterProperties;
+import com.gpb.metadata.ingestion.properties.IgniteStorageProperties;
+
 @Configuration
 @EnableConfigurationProperties
 public class IgniteConfig {
 
+    // Регион с persistence для runtime состояния
+    public static final String PERSISTENT_REGION = "Default_Region";
+    // In-memory регион с вытеснением для индексов и дайджестов
+    public static final String VOLATILE_REGION = "Volatile_Region";
+    // In-memory регион без вытеснения для временных кэшей сверки
+    public static final String TEMP_REGION = "Temp_Region";
+
+    private final IgniteStorageProperties storageProperties;
+    private final IgniteClusterProperties clusterProperties;
+    private final ApplicationContext applicationContext;
+
+    public IgniteConfig(IgniteStorageProperties storageProperties,
+                        IgniteClusterProperties clusterProperties,
+                        ApplicationContext applicationContext) {
+        this.storageProperties = storageProperties;
+        this.clusterProperties = clusterProperties;
+        this.applicationContext = applicationContext;
+    }
+
     @Value("${ignite.persistence.storagePath:/ignite-storage/db}")
     private String persistenceStoragePath;
 
@@ -33,30 +57,42 @@ public class IgniteConfig {
     private String workDir;
 
     @Bean(name = "igniteInstance", destroyMethod = "close")
-    public Ignite igniteInstance() {
+    public Ignite igniteInstance() throws IgniteCheckedException {
         IgniteConfiguration cfg = new IgniteConfiguration();
 
         // Основные настройки
-        cfg.setIgniteInstanceName("metadata-ingestion-cache");
+        cfg.setIgniteInstanceName(clusterProperties.getInstanceName());
         cfg.setPeerClassLoadingEnabled(true);
         cfg.setClientMode(false);
         cfg.setWorkDirectory(workDir);
+        if (clusterProperties.getConsistentId() != null && !clusterProperties.getConsistentId().isBlank()) {
+            cfg.setConsistentId(clusterProperties.getConsistentId());
+        }
+        if (clusterProperties.getLocalAddress() != null && !clusterProperties.getLocalAddress().isBlank()) {
+            cfg.setLocalHost(clusterProperties.getLocalAddress());
+        }
 
         // Конфигурация хранилища
         DataStorageConfiguration storageCfg = new DataStorageConfiguration();
 
-        // Создаем регион памяти с persistence
+        // Регион по умолчанию с persistence: runtime состояние
+        IgniteStorageProperties.Region persistent = storageProperties.getPersistent();
         DataRegionConfiguration dataRegionConfig = new DataRegionConfiguration()
-                .setName("Default_Region")
-                .setInitialSize(4L * 1024 * 1024 * 1024) // 4 GB
-                .setMaxSize(16L * 1024 * 1024 * 1024)     // 16 GB
+                .setName(PERSISTENT_REGION)
+                .setInitialSize(persistent.getInitialSize())
+                .setMaxSize(persistent.getMaxSize())
+                .setMetricsEnabled(persistent.isMetricsEnabled())
                 .setPersistenceEnabled(true);
 
-
-
         // Устанавливаем регион по умолчанию
         storageCfg.setDefaultDataRegionConfiguration(dataRegionConfig);
 
+        // In-memory регионы: данные не пишутся в WAL и не попадают в checkpoint
+        storageCfg.setDataRegionConfigurations(
+                inMemoryRegion(VOLATILE_REGION, storageProperties.getVolatileRegion()),
+                inMemoryRegion(TEMP_REGION, storageProperties.getTemp())
+        );
+
         // Папка для хранения данных Ignite
         storageCfg.setStoragePath(persistenceStoragePath);
         storageCfg.setWalPath(persistenceWalPath);
@@ -64,27 +100,61 @@ public class IgniteConfig {
 
         cfg.setDataStorageConfiguration(storageCfg);
 
-        // Discovery SPI (локальный кластер)
+        // Discovery SPI
+        IgniteClusterProperties.Discovery discovery = clusterProperties.getDiscovery();
         TcpDiscoverySpi discoverySpi = new TcpDiscoverySpi();
-        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
-        ipFinder.setAddresses(Arrays.asList("127.0.0.1:47500"));
-        discoverySpi.setIpFinder(ipFinder);
-        discoverySpi.setJoinTimeout(3000);
+        discoverySpi.setIpFinder(ipFinder(discovery));
+        discoverySpi.setLocalPort(discovery.getLocalPort());
+        discoverySpi.setLocalPortRange(discovery.getLocalPortRange());
+        discoverySpi.setJoinTimeout(discovery.getJoinTimeout());
         cfg.setDiscoverySpi(discoverySpi);
 
         // Communication SPI
         TcpCommunicationSpi commSpi = new TcpCommunicationSpi();
-        commSpi.setLocalPort(47100);
+        commSpi.setLocalPort(clusterProperties.getCommunication().getLocalPort());
+        commSpi.setLocalPortRange(clusterProperties.getCommunication().getLocalPortRange());
         cfg.setCommunicationSpi(commSpi);
 
         cfg.setNetworkTimeout(5000);
         cfg.setMetricsLogFrequency(0);
 
-        Ignite ignite = Ignition.start(cfg);
+        // Через контекст Spring задачи compute получают бины узла (@SpringResource)
+        Ignite ignite = IgniteSpring.start(cfg, applicationContext);
 
         // ВАЖНО: активация кластера при persistence
         ignite.cluster().state(ClusterState.ACTIVE);
 
+        // Узлы, вошедшие позже, попадают в baseline и получают копию REPLICATED кэшей
+        IgniteClusterProperties.Baseline baseline = clusterProperties.getBaseline();
+        ignite.cluster().baselineAutoAdjustEnabled(baseline.isAutoAdjustEnabled());
+        if (baseline.isAutoAdjustEnabled()) {
+            ignite.cluster().baselineAutoAdjustTimeout(baseline.getAutoAdjustTimeout());
+        }
+
         return ignite;
     }
+
+    private TcpDiscoveryIpFinder ipFinder(IgniteClusterProperties.Discovery discovery) {
+        if (discovery.getType() == IgniteClusterProperties.DiscoveryType.SHARED_FS) {
+            TcpDiscoverySharedFsIpFinder ipFinder = new TcpDiscoverySharedFsIpFinder();
+            if (discovery.getSharedPath() != null && !discovery.getSharedPath().isBlank()) {
+                ipFinder.setPath(discovery.getSharedPath());
+            }
+            return ipFinder;
+        }
+
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        ipFinder.setAddresses(discovery.getAddresses());
+        return ipFinder;
+    }
+
+    private DataRegionConfiguration inMemoryRegion(String name, IgniteStorageProperties.Region region) {
+        return new DataRegionConfiguration()
+                .setName(name)
+                .setInitialSize(region.getInitialSize())
+                .setMaxSize(region.getMaxSize())
+                .setPageEvictionMode(region.getEvictionMode())
+                .setMetricsEnabled(region.isMetricsEnabled())
+                .setPersistenceEnabled(false);
+    }
 }
@@ -2,12 +2,13 @@ package com.gpb.metadata.ingestion.config;
 
 
 import com.gpb.metadata.ingestion.properties.LogsDatabaseProperties;
+import com.zaxxer.hikari.HikariDataSource;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
@@ -17,11 +18,14 @@ public class LogsDbConfig {
 
     private final LogsDatabaseProperties logsDatabaseProperties;
 
+    // Отдельный пул: запись аудита не занимает соединения основной БД.
+    // Параметры пула берутся из logs-database.hikari
     @Bean(name = "logsDataSource")
-    public DataSource logsDataSource() {
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+    @ConfigurationProperties(prefix = "logs-database.hikari")
+    public HikariDataSource logsDataSource() {
+        HikariDataSource dataSource = new HikariDataSource();
         dataSource.setDriverClassName("org.postgresql.Driver");
-        dataSource.setUrl(logsDatabaseProperties.getUrl());
+        dataSource.setJdbcUrl(logsDatabaseProperties.getUrl());
         dataSource.setUsername(logsDatabaseProperties.getUsername());
         dataSource.setPassword(logsDatabaseProperties.getPassword());
         return dataSource;
@@ -1,26 +1,29 @@
 package com.gpb.metadata.ingestion.config;
 
+import com.zaxxer.hikari.HikariDataSource;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.datasource.DriverManagerDataSource;
 
 import javax.sql.DataSource;
 
 @Configuration
 public class OrdDbConfig {
 
+    // Параметры пула (размер, таймауты) берутся из ord.datasource.hikari
     @Bean(name = "ordDataSource")
-    public DataSource ordDataSource(
+    @ConfigurationProperties(prefix = "ord.datasource.hikari")
+    public HikariDataSource ordDataSource(
             @Value("${ord.datasource.url}") String url,
             @Value("${ord.datasource.username}") String username,
             @Value("${ord.datasource.password}") String password) {
 
-        DriverManagerDataSource dataSource = new DriverManagerDataSource();
+        HikariDataSource dataSource = new HikariDataSource();
         dataSource.setDriverClassName("org.postgresql.Driver");
-        dataSource.setUrl(url);
+        dataSource.setJdbcUrl(url);
         dataSource.setUsername(username);
         dataSource.setPassword(password);
         return dataSource;
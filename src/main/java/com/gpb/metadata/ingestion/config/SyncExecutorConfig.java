@@ -0,0 +1,24 @@
+package com.gpb.metadata.ingestion.config;
+
+import java.util.concurrent.ForkJoinPool;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+
+@Configuration
+public class SyncExecutorConfig {
+
+    /**
+     * Пул для параллельной сверки партиций и загрузки изменившихся записей.
+     * Ограничен metadata.sync.parallelism (0 — по числу ядер).
+     */
+    @Bean(name = "diffPool", destroyMethod = "shutdown")
+    public ForkJoinPool diffPool(MetadataSyncProperties syncProperties) {
+        int parallelism = syncProperties.getParallelism() > 0
+                ? syncProperties.getParallelism()
+                : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(parallelism);
+    }
+}
@@ -5,10 +5,16 @@ import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
 import org.springframework.web.reactive.function.client.WebClient;
 
 import com.gpb.metadata.ingestion.properties.WebClientProperties;
 
+import io.netty.channel.ChannelOption;
+import reactor.netty.http.HttpProtocol;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
 @Configuration
 @EnableConfigurationProperties(WebClientProperties.class)
 public class WebClientConfig {
@@ -19,12 +25,55 @@ public class WebClientConfig {
         this.webClientProperties = webClientProperties;
     }
 
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider ordaConnectionProvider() {
+        WebClientProperties.Http http = webClientProperties.getHttp();
+        return ConnectionProvider.builder("orda")
+                .maxConnections(http.getMaxConnections())
+                .pendingAcquireMaxCount(pendingAcquireMaxCount(http))
+                .pendingAcquireTimeout(http.getPendingAcquireTimeout())
+                .maxIdleTime(http.getMaxIdleTime())
+                .maxLifeTime(http.getMaxLifeTime())
+                .evictInBackground(http.getEvictInterval())
+                .metrics(http.isMetricsEnabled())
+                .build();
+    }
+
     @Bean
-    public WebClient webClient(WebClient.Builder webClientBuilder) {
+    public WebClient webClient(WebClient.Builder webClientBuilder, ConnectionProvider ordaConnectionProvider) {
+        WebClientProperties.Http http = webClientProperties.getHttp();
+        HttpClient httpClient = HttpClient.create(ordaConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) http.getConnectTimeout().toMillis())
+                .responseTimeout(http.getResponseTimeout())
+                .keepAlive(http.isKeepAlive())
+                .protocol(protocols(http.getProtocol()));
+        if (http.isMetricsEnabled()) {
+            // Путь не используется как тег: у каждой сущности свой URI
+            httpClient = httpClient.metrics(true, uri -> "/");
+        }
+
         return webClientBuilder
                 .baseUrl(webClientProperties.getBaseUrl())
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
                 .defaultHeader(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
                 .defaultHeader(HttpHeaders.ACCEPT, MediaType.APPLICATION_JSON_VALUE)
                 .build();
     }
+
+    private HttpProtocol[] protocols(WebClientProperties.Protocol protocol) {
+        return switch (protocol) {
+            case H2 -> new HttpProtocol[] {HttpProtocol.H2, HttpProtocol.HTTP11};
+            case H2C -> new HttpProtocol[] {HttpProtocol.H2C};
+            case HTTP11 -> new HttpProtocol[] {HttpProtocol.HTTP11};
+        };
+    }
+
+    /**
+     * 0 — 2 * max-connections; -1 reactor-netty понимает как очередь без ограничения
+     */
+    private int pendingAcquireMaxCount(WebClientProperties.Http http) {
+        return http.getPendingAcquireMaxCount() == 0
+                ? 2 * http.getMaxConnections()
+                : http.getPendingAcquireMaxCount();
+    }
 }
@@ -36,7 +36,8 @@ public class CacheController {
         return startInternal(
             schemasProperties.getPostgres(), 
             body.getServiceName(),
-            body.isAsync()
+            body.isAsync(),
+            body.isFullSync()
         );
     }
 
@@ -46,7 +47,8 @@ public class CacheController {
         return startInternal(
             schemasProperties.getOracle(), 
             body.getServiceName(),
-            body.isAsync()
+            body.isAsync(),
+            body.isFullSync()
         );
     }
 
@@ -56,7 +58,8 @@ public class CacheController {
         return startInternal(
             schemasProperties.getMssql(), 
             body.getServiceName(),
-            body.isAsync()
+            body.isAsync(),
+            body.isFullSync()
         );
     }
 
@@ -66,7 +69,8 @@ public class CacheController {
         return startInternal(
             schemasProperties.getSapiq(), 
             body.getServiceName(),
-            body.isAsync()
+            body.isAsync(),
+            body.isFullSync()
         );
     }
 
@@ -86,9 +90,13 @@ public class CacheController {
     private ResponseEntity<String> startInternal(
         String schema, 
         String serviceName,
-        boolean async
+        boolean async,
+        boolean fullSync
     ) {
         try {
+            if (fullSync) {
+                cacheService.requestFullSync(schema, serviceName);
+            }
             if (async) {
                 metadataHandlerService.startAsync(schema, serviceName);
             } else {
@@ -6,4 +6,6 @@ import lombok.Data;
 public class RequestBodyDto {
     private String serviceName;
     private boolean async;
+    // Принудительная полная сверка вместо инкрементальной
+    private boolean fullSync;
 }
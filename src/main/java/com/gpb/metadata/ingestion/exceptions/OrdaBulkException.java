@@ -0,0 +1,10 @@
+package com.gpb.metadata.ingestion.exceptions;
+
+/**
+ * Bulk запрос принят ОРД не полностью: часть сущностей пачки отклонена
+ */
+public class OrdaBulkException extends RuntimeException {
+    public OrdaBulkException(String message) {
+        super(message);
+    }
+}
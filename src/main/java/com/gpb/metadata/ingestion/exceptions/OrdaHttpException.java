@@ -0,0 +1,31 @@
+package com.gpb.metadata.ingestion.exceptions;
+
+import java.time.Duration;
+
+/**
+ * Ответ ОРД с кодом ошибки. Сообщение — тело ответа.
+ */
+public class OrdaHttpException extends RuntimeException {
+    private final int status;
+
+    // Значение заголовка Retry-After; null — заголовка нет
+    private final Duration retryAfter;
+
+    public OrdaHttpException(int status, String message) {
+        this(status, message, null);
+    }
+
+    public OrdaHttpException(int status, String message, Duration retryAfter) {
+        super(message);
+        this.status = status;
+        this.retryAfter = retryAfter;
+    }
+
+    public int getStatus() {
+        return status;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -2,10 +2,24 @@ package com.gpb.metadata.ingestion.metrics;
 
 import java.util.concurrent.atomic.AtomicLong;
 
+import com.gpb.metadata.ingestion.utils.RetryBudget;
+
 public class MetricCounter {
 
     private final AtomicLong success = new AtomicLong();
     private final AtomicLong error = new AtomicLong();
+    private final AtomicLong retry = new AtomicLong();
+
+    // Бюджет повторов запуска, общий для всех этапов; null — без ограничения
+    private final RetryBudget retryBudget;
+
+    public MetricCounter() {
+        this(null);
+    }
+
+    public MetricCounter(RetryBudget retryBudget) {
+        this.retryBudget = retryBudget;
+    }
 
     public void success() {
         success.incrementAndGet();
@@ -15,6 +29,10 @@ public class MetricCounter {
         error.incrementAndGet();
     }
 
+    public void retry() {
+        retry.incrementAndGet();
+    }
+
     public long getSuccessCount() {
         return success.get();
     }
@@ -22,4 +40,12 @@ public class MetricCounter {
     public long getErrorCount() {
         return error.get();
     }
+
+    public long getRetryCount() {
+        return retry.get();
+    }
+
+    public RetryBudget getRetryBudget() {
+        return retryBudget;
+    }
 }
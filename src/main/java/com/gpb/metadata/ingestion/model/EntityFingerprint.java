@@ -0,0 +1,24 @@
+package com.gpb.metadata.ingestion.model;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Минимальное runtime-состояние сущности: всё, что нужно для сверки с БД
+ * и для DELETE в ОРД. parentFqn хранится в ключе кэша ({@link EntityId}),
+ * полный payload при необходимости читается из БД-источника.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EntityFingerprint implements Serializable {
+    private String hashData;
+    private String fqn;
+
+    public static EntityFingerprint of(Metadata metadata) {
+        return new EntityFingerprint(metadata.getHashData(), metadata.getFqn());
+    }
+}
@@ -1,25 +1,62 @@
 package com.gpb.metadata.ingestion.model;
 
 import java.io.Serializable;
+import java.util.Objects;
+
+import com.gpb.metadata.ingestion.utils.FqnInterner;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.Embeddable;
-import lombok.Data;
+import lombok.Getter;
+import lombok.ToString;
 
-@Data
+/**
+ * Ключ сущности в runtime кэшах и структурах сверки.
+ *
+ * id хранится примитивом, parentFqn интернируется ({@link FqnInterner}):
+ * ключи одной схемы ссылаются на одну строку, поэтому equals сравнивает
+ * сначала id, а строки — по ссылке. В Ignite binary формате поле id
+ * по-прежнему имеет тип long, сохранённые ключи совместимы.
+ */
+@Getter
+@ToString
 @Embeddable
 public class EntityId implements Serializable{
     @Column(name = "id")
-    private Long id;
+    private long id;
 
     @Column(name = "parent_fqn")
     private String parentFqn;
 
-    public EntityId(Long id, String parentFqn) {
+    public EntityId(long id, String parentFqn) {
         this.id = id;
-        this.parentFqn = parentFqn;
+        this.parentFqn = FqnInterner.intern(parentFqn);
     }
 
     public EntityId() {
     }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public void setParentFqn(String parentFqn) {
+        this.parentFqn = FqnInterner.intern(parentFqn);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof EntityId other)) {
+            return false;
+        }
+        return id == other.id && Objects.equals(parentFqn, other.parentFqn);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * Long.hashCode(id) + Objects.hashCode(parentFqn);
+    }
 }
@@ -0,0 +1,26 @@
+package com.gpb.metadata.ingestion.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+/**
+ * Запись журнала повторов: сущность, изменение которой ещё не подтверждено ОРД.
+ * Запись создаётся до отправки и удаляется после успешного PUT/DELETE,
+ * поэтому после ошибки или прерванного запуска сущность отправляется повторно.
+ */
+@Data
+public class RetryEntry implements Serializable {
+    // true — ожидается DELETE, false — PUT
+    private boolean deleted;
+
+    // Fingerprint удаляемой сущности (для DELETE без строки в БД)
+    private EntityFingerprint fingerprint;
+
+    private int attempts;
+
+    private String lastError;
+
+    private LocalDateTime lastAttemptAt;
+}
@@ -0,0 +1,19 @@
+package com.gpb.metadata.ingestion.model;
+
+import java.io.Serializable;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Дайджест таблиц одной схемы (уровень Merkle-дерева). Ключ — parentFqn
+ * таблиц, digest — md5 по отсортированным парам id:hash_data.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SchemaDigest implements Serializable {
+    private String dbName;
+    private String digest;
+}
@@ -0,0 +1,28 @@
+package com.gpb.metadata.ingestion.model;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+import lombok.Data;
+
+/**
+ * Состояние синхронизации одного типа объектов сервиса.
+ * Хранится в persistent кэше рядом с runtime кэшами.
+ */
+@Data
+public class SyncState implements Serializable {
+    private String schemaName;
+    private String serviceName;
+
+    // Максимальное значение watermark-колонки, прочитанное последним успешным запуском
+    private LocalDateTime watermark;
+
+    // Количество инкрементальных запусков подряд с момента последней полной сверки
+    private int incrementalRuns;
+
+    private LocalDateTime lastSyncAt;
+
+    // Runtime состояние вытеснено в public.metadata_sync_state и будет
+    // восстановлено при следующем обращении
+    private boolean spilled;
+}
@@ -1,26 +1,28 @@
 package com.gpb.metadata.ingestion.model.postgres;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.time.LocalDateTime;
 
-import org.hibernate.annotations.JdbcTypeCode;
-import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gpb.metadata.ingestion.model.EntityId;
 import com.gpb.metadata.ingestion.model.Metadata;
 import com.gpb.metadata.ingestion.model.schema.TableData;
+import com.gpb.metadata.ingestion.utils.CompressedJson;
+import com.gpb.metadata.ingestion.utils.JsonSupport;
 
 import jakarta.persistence.Column;
 import jakarta.persistence.EmbeddedId;
 import jakarta.persistence.Entity;
 import jakarta.persistence.EntityListeners;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
 import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.ToString;
 
 @Entity
 @Data
@@ -48,9 +50,16 @@ public class TableMetadata implements Metadata {
     @Column(name = "service_name")
     private String serviceName;
 
-    @Column(columnDefinition = "jsonb", nullable = false)
-    @JdbcTypeCode(SqlTypes.JSON)
-    private JsonNode data;
+    // JSONB data хранится сжатым (см. CompressedJson) и разбирается только
+    // при обращении к getData()/getTableData()
+    @Transient
+    private byte[] compressedData;
+
+    // Разобранный TableData: декодируется не более одного раза на экземпляр
+    @Transient
+    @EqualsAndHashCode.Exclude
+    @ToString.Exclude
+    private transient volatile TableData tableData;
 
     @Column(name = "hash_data")
     private String hashData;
@@ -77,20 +86,57 @@ public class TableMetadata implements Metadata {
     @Override
     public String getHashData() { return hashData; }
 
+    public void setCompressedData(byte[] compressedData) {
+        this.compressedData = compressedData;
+        this.tableData = null;
+    }
+
+    /**
+     * JSON data как строка, прочитанная из JSONB, без построения дерева
+     */
+    public void setDataJson(String json) {
+        this.compressedData = CompressedJson.compress(json);
+        this.tableData = null;
+    }
+
+    public String getDataJson() {
+        return CompressedJson.decompress(compressedData);
+    }
+
+    public JsonNode getData() {
+        if (compressedData == null) {
+            return null;
+        }
+        try (InputStream in = CompressedJson.open(compressedData)) {
+            return JsonSupport.MAPPER.readTree(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Error reading JSON data", e);
+        }
+    }
+
+    public void setData(JsonNode data) {
+        this.compressedData = data == null ? null : CompressedJson.compress(data.toString());
+        this.tableData = null;
+    }
+
     public TableData getTableData() {
-        try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            objectMapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
-            return objectMapper.treeToValue(this.data, TableData.class);
-        } catch (JsonProcessingException e) {
+        TableData result = tableData;
+        if (result != null || compressedData == null) {
+            return result;
+        }
+        try (InputStream in = CompressedJson.open(compressedData)) {
+            result = JsonSupport.TABLE_DATA_READER.readValue(in);
+        } catch (IOException e) {
             throw new RuntimeException("Error converting JSON data to TableData", e);
         }
+        tableData = result;
+        return result;
     }
 
     public void setTableData(TableData tableData) {
         try {
-            ObjectMapper objectMapper = new ObjectMapper();
-            this.data = objectMapper.valueToTree(tableData);
+            this.compressedData = CompressedJson.compress(JsonSupport.TABLE_DATA_WRITER.writeValueAsBytes(tableData));
+            this.tableData = tableData;
         } catch (Exception e) {
             throw new RuntimeException("Error converting TableData to JSON", e);
         }
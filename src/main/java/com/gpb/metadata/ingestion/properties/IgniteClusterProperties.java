@@ -0,0 +1,74 @@
+package com.gpb.metadata.ingestion.properties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Топология кластера Ignite.
+ *
+ * Узлы находят друг друга по статическому списку адресов (STATIC) или
+ * через общий каталог (SHARED_FS). Для нескольких JVM на одном хосте
+ * достаточно диапазонов портов: каждый узел занимает первый свободный.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ignite.cluster")
+@Data
+public class IgniteClusterProperties {
+    private String instanceName = "metadata-ingestion-cache";
+
+    // Постоянный идентификатор узла: определяет каталог persistence узла.
+    // Если не задан, вычисляется Ignite по адресам и портам
+    private String consistentId;
+
+    // Адрес, на котором узел слушает discovery и communication (пусто — все интерфейсы)
+    private String localAddress;
+
+    private Discovery discovery = new Discovery();
+
+    private Communication communication = new Communication();
+
+    private Baseline baseline = new Baseline();
+
+    // Запускать синхронизацию сервиса на узле-владельце его affinity партиции
+    private boolean affinityRouting = true;
+
+    public enum DiscoveryType {
+        STATIC,
+        SHARED_FS
+    }
+
+    @Data
+    public static class Discovery {
+        private DiscoveryType type = DiscoveryType.STATIC;
+
+        // Адреса для STATIC: host:port или host:port1..port2
+        private List<String> addresses = new ArrayList<>(List.of("127.0.0.1:47500..47509"));
+
+        // Каталог для SHARED_FS, доступный всем узлам
+        private String sharedPath;
+
+        private int localPort = 47500;
+        private int localPortRange = 10;
+        private long joinTimeout = 3000;
+    }
+
+    @Data
+    public static class Communication {
+        private int localPort = 47100;
+        private int localPortRange = 100;
+    }
+
+    @Data
+    public static class Baseline {
+        // Автоматически включать в baseline вошедшие узлы и исключать вышедшие
+        private boolean autoAdjustEnabled = true;
+
+        // Задержка перед изменением baseline после смены топологии, мс
+        private long autoAdjustTimeout = 30_000;
+    }
+}
@@ -0,0 +1,45 @@
+package com.gpb.metadata.ingestion.properties;
+
+import org.apache.ignite.configuration.DataPageEvictionMode;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import lombok.Data;
+
+/**
+ * Регионы памяти Ignite.
+ *
+ * persistent — runtime состояние, журнал повторов, watermark'и (WAL + checkpoint);
+ * volatile   — FQN индексы и дайджесты: восстанавливаются из БД, допускают вытеснение;
+ * temp       — временные кэши сверки: без persistence и без вытеснения, т.к.
+ *              потеря записи исказила бы результат сверки.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ignite.regions")
+@Data
+public class IgniteStorageProperties {
+    private Region persistent = new Region(4L * 1024 * 1024 * 1024, 16L * 1024 * 1024 * 1024,
+            DataPageEvictionMode.DISABLED);
+    private Region volatileRegion = new Region(256L * 1024 * 1024, 2L * 1024 * 1024 * 1024,
+            DataPageEvictionMode.RANDOM_2_LRU);
+    private Region temp = new Region(256L * 1024 * 1024, 4L * 1024 * 1024 * 1024,
+            DataPageEvictionMode.DISABLED);
+
+    @Data
+    public static class Region {
+        private long initialSize;
+        private long maxSize;
+        // Для persistent региона игнорируется: вытеснением управляет checkpoint
+        private DataPageEvictionMode evictionMode;
+        private boolean metricsEnabled = true;
+
+        public Region() {
+        }
+
+        public Region(long initialSize, long maxSize, DataPageEvictionMode evictionMode) {
+            this.initialSize = initialSize;
+            this.maxSize = maxSize;
+            this.evictionMode = evictionMode;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.gpb.metadata.ingestion.properties;
+
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+@ConfigurationProperties(prefix = "metadata.sync")
+@Data
+public class MetadataSyncProperties {
+    // Складывать выборку из БД во временный Ignite кэш перед сверкой.
+    // По умолчанию строки сравниваются с runtime кэшем напрямую.
+    private boolean tempCacheEnabled = false;
+
+    // Размер пачки id = ANY(?) при загрузке полных записей изменившихся сущностей
+    private int loadBatchSize = 1000;
+
+    // Размер пачки серверного курсора при потоковом чтении из PostgreSQL
+    private int fetchSize = 5000;
+
+    // Число потоков сверки: ключи делятся на партиции по hash(parentFqn),
+    // партиции сравниваются и догружаются параллельно (0 — по числу ядер, 1 — последовательно)
+    private int parallelism = 0;
+
+    // Хранить состояние всех сервисов в одном кэше на тип объектов
+    // (составной ключ scope + id) вместо отдельного кэша на сервис
+    private boolean sharedCaches = false;
+
+    private Incremental incremental = new Incremental();
+
+    private Merkle merkle = new Merkle();
+
+    private ColdStart coldStart = new ColdStart();
+
+    private Eviction eviction = new Eviction();
+
+    // Сервисы, для которых сверка выполняется в PostgreSQL по таблице
+    // public.metadata_sync_state вместо runtime кэшей Ignite
+    private Set<String> databaseDiffServices = new HashSet<>();
+
+    @Data
+    public static class Incremental {
+        // Читать из БД только строки, изменившиеся после сохранённого watermark
+        private boolean enabled = false;
+
+        // Timestamp-колонка таблиц *_metadata, по которой определяется изменение
+        private String watermarkColumn = "created_at";
+
+        // Каждый N-й запуск выполняется полная сверка (0 — только по запросу)
+        private int fullSyncEveryRuns = 24;
+    }
+
+    @Data
+    public static class Merkle {
+        // Сверять таблицы по дайджестам баз данных и схем и спускаться
+        // только в поддеревья, дайджест которых изменился
+        private boolean enabled = false;
+    }
+
+    @Data
+    public static class ColdStart {
+        // При пустом runtime состоянии (первая загрузка, после /clean) строки
+        // БД отправляются в ОРД потоком, без сверки
+        private boolean enabled = true;
+
+        // Размер страницы (keyset по id), читаемой перед отправкой и фиксацией
+        private int batchSize = 1000;
+    }
+
+    @Data
+    public static class Eviction {
+        private boolean enabled = false;
+
+        // Состояние сервиса, не синхронизировавшегося дольше idleTtl, вытесняется
+        private Duration idleTtl = Duration.ofDays(30);
+
+        // Сколько сервисов держать в Ignite (0 — без ограничения); сверх лимита
+        // вытесняются давнее всего синхронизированные
+        private int maxServices = 0;
+
+        private EvictionAction action = EvictionAction.SPILL;
+
+        private String schedule = "0 0 * * * ?";
+    }
+
+    public enum EvictionAction {
+        // Fingerprint'ы переносятся в public.metadata_sync_state и
+        // восстанавливаются оттуда без повторной отправки в ОРД
+        SPILL,
+        // Состояние удаляется, следующий запуск выполнит холодный старт
+        DROP
+    }
+}
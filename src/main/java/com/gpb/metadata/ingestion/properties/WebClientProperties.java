@@ -1,5 +1,9 @@
 package com.gpb.metadata.ingestion.properties;
 
+import java.time.Duration;
+import java.util.HashSet;
+import java.util.Set;
+
 import org.springframework.boot.context.properties.ConfigurationProperties;
 import org.springframework.context.annotation.Configuration;
 
@@ -14,6 +18,16 @@ public class WebClientProperties {
     private String baseUrl;
 
     private Endpoints endpoints = new Endpoints();
+
+    private Bulk bulk = new Bulk();
+
+    private Http http = new Http();
+
+    private Compression compression = new Compression();
+
+    private Adaptive adaptive = new Adaptive();
+
+    private Retry retry = new Retry();
     
     @Getter
     @Setter
@@ -25,6 +39,107 @@ public class WebClientProperties {
         private String lineage = "/lineage";
     }
     
+    /**
+     * Пакетная отправка PUT в bulk endpoint ОРД (<endpoint>/bulk).
+     * Пачка, не принятая целиком, повторяется поштучными PUT.
+     */
+    @Getter
+    @Setter
+    public static class Bulk {
+        private boolean enabled = false;
+        private int batchSize = 100;
+        private String suffix = "/bulk";
+        private boolean tables = true;
+        private boolean schemas = false;
+        private boolean databases = false;
+    }
+
+    /**
+     * HTTP клиент ОРД: пул соединений reactor-netty, таймауты и протокол.
+     * Размер пула должен быть не меньше ord.api.max-connections, иначе
+     * запросы ждут свободного соединения (pending acquire).
+     */
+    @Getter
+    @Setter
+    public static class Http {
+        private int maxConnections = 50;
+        // Очередь ожидания соединения; 0 — 2 * max-connections, -1 — без ограничения
+        private int pendingAcquireMaxCount = 0;
+        private Duration pendingAcquireTimeout = Duration.ofSeconds(45);
+        // Простаивающее соединение закрывается (ОРД/балансировщик может закрыть его раньше)
+        private Duration maxIdleTime = Duration.ofSeconds(30);
+        private Duration maxLifeTime = Duration.ofMinutes(5);
+        // Период фоновой очистки пула от простаивающих и истёкших соединений
+        private Duration evictInterval = Duration.ofSeconds(30);
+        private Duration connectTimeout = Duration.ofSeconds(5);
+        private Duration responseTimeout = Duration.ofSeconds(60);
+        private boolean keepAlive = true;
+        private Protocol protocol = Protocol.HTTP11;
+        // Метрики пула и запросов в Micrometer (reactor.netty.*)
+        private boolean metricsEnabled = true;
+    }
+
+    /**
+     * Тела PUT сериализуются в байты на Schedulers.parallel() и при
+     * enabled сжимаются gzip (Content-Encoding: gzip), если не меньше min-size
+     */
+    @Getter
+    @Setter
+    public static class Compression {
+        private boolean enabled = false;
+        private int minSize = 8192;
+    }
+
+    /**
+     * Адаптивный (AIMD) лимит параллельных запросов вместо фиксированного
+     * max-connections, отдельно для database, schema, table и delete
+     */
+    @Getter
+    @Setter
+    public static class Adaptive {
+        private boolean enabled = false;
+        // Начальный лимит; 0 — ord.api.max-connections
+        private int initialLimit = 0;
+        private int minLimit = 1;
+        private int maxLimit = 64;
+        // Во сколько раз уменьшается лимит при перегрузке
+        private double backoffRatio = 0.75;
+        // Несколько ответов подряд с задержкой больше средней в latency-tolerance раз — перегрузка
+        private double latencyTolerance = 2.0;
+    }
+
+    /**
+     * Повтор идемпотентных PUT и DELETE при временных ошибках ОРД:
+     * экспоненциальная задержка со случайным разбросом, Retry-After
+     * учитывается. Число повторов за запуск ограничено бюджетом.
+     */
+    @Getter
+    @Setter
+    public static class Retry {
+        private boolean enabled = true;
+        // Всего попыток, включая первую
+        private int maxAttempts = 3;
+        private Duration minBackoff = Duration.ofMillis(500);
+        private Duration maxBackoff = Duration.ofSeconds(10);
+        // Доля случайного разброса задержки: 0 — без разброса, 1 — от 0 до полной задержки
+        private double jitter = 0.5;
+        // Если ОРД просит ждать дольше (Retry-After), запрос не повторяется
+        private Duration maxRetryAfter = Duration.ofSeconds(30);
+        // HTTP коды, считающиеся временными; ошибки соединения и таймауты повторяются всегда
+        private Set<Integer> statuses = new HashSet<>(Set.of(429, 502, 503, 504));
+        // Бюджет запуска: не больше budget-min-retries + budget-ratio * число запросов
+        private int budgetMinRetries = 20;
+        private double budgetRatio = 0.1;
+    }
+
+    public enum Protocol {
+        HTTP11,
+        // HTTP/2 по TLS (ALPN) с откатом на HTTP/1.1
+        H2,
+        // HTTP/2 без TLS (prior knowledge)
+        H2C
+    }
+
     // Методы для конкретных endpoints (возвращают только путь)
     public String getDatabaseEndpoint() {
         return endpoints.database;
@@ -0,0 +1,289 @@
+package com.gpb.metadata.ingestion.repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowCallbackHandler;
+
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.model.Metadata;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+
+/**
+ * Общие запросы к таблицам *_metadata. Наследник задаёт имя таблицы,
+ * список колонок полной выборки и маппинг строки.
+ */
+public abstract class AbstractMetadataRepository<T extends Metadata> implements MetadataRepository<T> {
+
+    protected final JdbcTemplate jdbcTemplate;
+    protected final MetadataSyncProperties syncProperties;
+
+    protected AbstractMetadataRepository(JdbcTemplate jdbcTemplate, MetadataSyncProperties syncProperties) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.syncProperties = syncProperties;
+    }
+
+    /**
+     * Колонки полной выборки для {@link #mapRow}
+     */
+    protected abstract String getSelectColumns();
+
+    protected abstract T mapRow(ResultSet rs, int rowNum) throws SQLException;
+
+    /**
+     * Получить все записи из нужной схемы по serviceName
+     */
+    @Override
+    public List<T> findByServiceName(String schema, String serviceName) {
+        List<T> result = new ArrayList<>();
+        streamByServiceName(schema, serviceName, result::add);
+        return result;
+    }
+
+    /**
+     * Потоково прочитать все записи по serviceName
+     */
+    @Override
+    public void streamByServiceName(String schema, String serviceName, Consumer<T> consumer) {
+        String sql = String.format("""
+            SELECT %s
+            FROM %s.%s
+            WHERE service_name = ?
+        """, getSelectColumns(), schema, getTableName());
+
+        int[] rowNum = {0};
+        stream(sql, ps -> ps.setString(1, serviceName), rs -> consumer.accept(mapRow(rs, rowNum[0]++)));
+    }
+
+    @Override
+    public List<T> findPageByServiceName(String schema, String serviceName, long afterId, int limit) {
+        String sql = String.format("""
+            SELECT %s
+            FROM %s.%s
+            WHERE service_name = ? AND id > ?
+            ORDER BY id
+            LIMIT ?
+        """, getSelectColumns(), schema, getTableName());
+
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setString(1, serviceName);
+            ps.setLong(2, afterId);
+            ps.setInt(3, limit);
+        }, this::mapRow);
+    }
+
+    /**
+     * Получить только ключи и hash записей по serviceName (первая фаза сверки).
+     * Тяжёлые колонки (data, description) не читаются.
+     */
+    @Override
+    public Map<EntityId, EntityFingerprint> findFingerprintsByServiceName(String schema, String serviceName) {
+        Map<EntityId, EntityFingerprint> result = new LinkedHashMap<>();
+        streamFingerprintsByServiceName(schema, serviceName, result::put);
+        return result;
+    }
+
+    /**
+     * Потоково прочитать ключи и hash записей по serviceName
+     */
+    @Override
+    public void streamFingerprintsByServiceName(String schema,
+                                                String serviceName,
+                                                BiConsumer<EntityId, EntityFingerprint> consumer) {
+        String sql = String.format("""
+            SELECT id, parent_fqn, fqn, hash_data
+            FROM %s.%s
+            WHERE service_name = ?
+        """, schema, getTableName());
+
+        stream(sql, ps -> ps.setString(1, serviceName), rs -> consumer.accept(
+                new EntityId(rs.getLong("id"), rs.getString("parent_fqn")),
+                new EntityFingerprint(rs.getString("hash_data"), rs.getString("fqn"))
+        ));
+    }
+
+    /**
+     * Чтение серверным курсором PostgreSQL: драйвер буферизует не весь
+     * результат, а по fetch-size строк. Курсор работает только вне
+     * autocommit, поэтому запрос выполняется в отдельной транзакции.
+     */
+    protected void stream(String sql, PreparedStatementSetter setter, RowCallbackHandler handler) {
+        jdbcTemplate.execute((ConnectionCallback<Void>) con -> {
+            boolean autoCommit = con.getAutoCommit();
+            con.setAutoCommit(false);
+            try (PreparedStatement ps = con.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY)) {
+                ps.setFetchSize(Math.max(1, syncProperties.getFetchSize()));
+                setter.setValues(ps);
+                try (ResultSet rs = ps.executeQuery()) {
+                    while (rs.next()) {
+                        handler.processRow(rs);
+                    }
+                }
+                con.commit();
+            } catch (SQLException | RuntimeException e) {
+                con.rollback();
+                throw e;
+            } finally {
+                con.setAutoCommit(autoCommit);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * Получить ключи и hash записей только для заданных parent_fqn
+     * (сверка изменившихся поддеревьев)
+     */
+    @Override
+    public Map<EntityId, EntityFingerprint> findFingerprintsByParents(String schema,
+                                                                      String serviceName,
+                                                                      Collection<String> parentFqns) {
+        if (parentFqns.isEmpty()) {
+            return Map.of();
+        }
+
+        String sql = String.format("""
+            SELECT id, parent_fqn, fqn, hash_data
+            FROM %s.%s
+            WHERE service_name = ? AND parent_fqn = ANY(?)
+        """, schema, getTableName());
+
+        String[] parents = parentFqns.toArray(String[]::new);
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setString(1, serviceName);
+            ps.setArray(2, ps.getConnection().createArrayOf("text", parents));
+        }, this::extractFingerprints);
+    }
+
+    /**
+     * Получить ключи и hash записей, у которых watermark-колонка лежит в (since, upTo]
+     */
+    @Override
+    public Map<EntityId, EntityFingerprint> findChangedSince(String schema,
+                                                             String serviceName,
+                                                             String watermarkColumn,
+                                                             LocalDateTime since,
+                                                             LocalDateTime upTo) {
+        String sql = String.format("""
+            SELECT id, parent_fqn, fqn, hash_data
+            FROM %s.%s
+            WHERE service_name = ? AND %3$s > ? AND %3$s <= ?
+        """, schema, getTableName(), checkColumn(watermarkColumn));
+
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setString(1, serviceName);
+            ps.setTimestamp(2, Timestamp.valueOf(since));
+            ps.setTimestamp(3, Timestamp.valueOf(upTo));
+        }, this::extractFingerprints);
+    }
+
+    /**
+     * Максимальное значение watermark-колонки по serviceName
+     */
+    @Override
+    public Optional<LocalDateTime> findMaxWatermark(String schema, String serviceName, String watermarkColumn) {
+        String sql = String.format("SELECT max(%s) FROM %s.%s WHERE service_name = ?",
+                checkColumn(watermarkColumn), schema, getTableName());
+
+        Timestamp max = jdbcTemplate.queryForObject(sql, Timestamp.class, serviceName);
+        return Optional.ofNullable(max).map(Timestamp::toLocalDateTime);
+    }
+
+    @Override
+    public long countByServiceName(String schema, String serviceName) {
+        String sql = String.format("SELECT count(*) FROM %s.%s WHERE service_name = ?", schema, getTableName());
+        Long count = jdbcTemplate.queryForObject(sql, Long.class, serviceName);
+        return count == null ? 0 : count;
+    }
+
+    /**
+     * Получить только ключи записей по serviceName (для поиска удалённых)
+     */
+    @Override
+    public Set<EntityId> findKeysByServiceName(String schema, String serviceName) {
+        String sql = String.format("SELECT id, parent_fqn FROM %s.%s WHERE service_name = ?",
+                schema, getTableName());
+
+        return jdbcTemplate.query(sql, ps -> ps.setString(1, serviceName), rs -> {
+            Set<EntityId> result = new HashSet<>();
+            while (rs.next()) {
+                result.add(new EntityId(rs.getLong("id"), rs.getString("parent_fqn")));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Получить полные записи по набору ключей из нужной схемы
+     */
+    @Override
+    public List<T> findByIds(String schema, String serviceName, Collection<EntityId> ids) {
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String sql = String.format("""
+            SELECT %s
+            FROM %s.%s
+            WHERE service_name = ? AND id = ANY(?)
+        """, getSelectColumns(), schema, getTableName());
+
+        Long[] idValues = ids.stream().map(EntityId::getId).distinct().toArray(Long[]::new);
+        Set<EntityId> keys = new HashSet<>(ids);
+
+        return jdbcTemplate.query(sql, ps -> {
+                    ps.setString(1, serviceName);
+                    ps.setArray(2, ps.getConnection().createArrayOf("bigint", idValues));
+                }, this::mapRow)
+                .stream()
+                .filter(entity -> keys.contains(entity.getId()))
+                .toList();
+    }
+
+    private Map<EntityId, EntityFingerprint> extractFingerprints(ResultSet rs) throws SQLException {
+        Map<EntityId, EntityFingerprint> result = new LinkedHashMap<>();
+        while (rs.next()) {
+            result.put(
+                    new EntityId(rs.getLong("id"), rs.getString("parent_fqn")),
+                    new EntityFingerprint(rs.getString("hash_data"), rs.getString("fqn"))
+            );
+        }
+        return result;
+    }
+
+    /**
+     * Имя колонки подставляется в SQL из конфигурации, поэтому проверяем его
+     */
+    private String checkColumn(String column) {
+        if (column == null || !column.matches("[A-Za-z_][A-Za-z0-9_]*")) {
+            throw new IllegalArgumentException("Некорректное имя watermark-колонки: " + column);
+        }
+        return column;
+    }
+
+    /**
+     * Удалить все записи по serviceName из нужной схемы
+     */
+    @Override
+    public void deleteByServiceName(String schema, String serviceName) {
+        String sql = String.format("DELETE FROM %s.%s WHERE service_name = ?", schema, getTableName());
+        jdbcTemplate.update(sql, serviceName);
+    }
+}
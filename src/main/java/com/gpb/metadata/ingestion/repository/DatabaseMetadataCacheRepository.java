@@ -5,44 +5,34 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+import com.gpb.metadata.ingestion.utils.FqnInterner;
+
 import com.gpb.metadata.ingestion.model.postgres.DatabaseMetadata;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.List;
 
 @Repository
-public class DatabaseMetadataCacheRepository implements MetadataRepository<DatabaseMetadata>{
-
-    @Qualifier("jdbcTemplate")
-    private final JdbcTemplate jdbcTemplate;
+public class DatabaseMetadataCacheRepository extends AbstractMetadataRepository<DatabaseMetadata> {
 
-    public DatabaseMetadataCacheRepository(@Qualifier("jdbcTemplate") JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    public DatabaseMetadataCacheRepository(@Qualifier("jdbcTemplate") JdbcTemplate jdbcTemplate,
+                                           MetadataSyncProperties syncProperties) {
+        super(jdbcTemplate, syncProperties);
     }
 
-    /**
-     * Получить все записи из нужной схемы по serviceName
-     */
-    public List<DatabaseMetadata> findByServiceName(String schema, String serviceName) {
-        String sql = String.format("""
-            SELECT id, parent_fqn, fqn, name, service_name, hash_data, created_at
-            FROM %s.database_metadata
-            WHERE service_name = ?
-        """, schema);
-
-        return jdbcTemplate.query(sql, this::mapRow, serviceName);
+    @Override
+    public String getTableName() {
+        return "database_metadata";
     }
 
-    /**
-     * Удалить все записи по serviceName из нужной схемы
-     */
-    public void deleteByServiceName(String schema, String serviceName) {
-        String sql = String.format("DELETE FROM %s.database_metadata WHERE service_name = ?", schema);
-        jdbcTemplate.update(sql, serviceName);
+    @Override
+    protected String getSelectColumns() {
+        return "id, parent_fqn, fqn, name, service_name, hash_data, created_at";
     }
 
-    private DatabaseMetadata mapRow(ResultSet rs, int rowNum) throws SQLException {
+    @Override
+    protected DatabaseMetadata mapRow(ResultSet rs, int rowNum) throws SQLException {
         DatabaseMetadata entity = new DatabaseMetadata();
         EntityId id = new EntityId(
                 rs.getLong("id"),
@@ -51,10 +41,9 @@ public class DatabaseMetadataCacheRepository implements MetadataRepository<Datab
         entity.setId(id);
         entity.setFqn(rs.getString("fqn"));
         entity.setName(rs.getString("name"));
-        entity.setServiceName(rs.getString("service_name"));
+        entity.setServiceName(FqnInterner.intern(rs.getString("service_name")));
         entity.setHashData(rs.getString("hash_data"));
         entity.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         return entity;
     }
 }
-
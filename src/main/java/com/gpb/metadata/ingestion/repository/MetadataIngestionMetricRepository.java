@@ -27,11 +27,12 @@ public class MetadataIngestionMetricRepository {
             job_name,
             success_count,
             error_count,
+            retry_count,
             start_dttm,
             end_dttm,
             appname
         )
-        VALUES (?, ?, ?, ?, ?, ?, ?)
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
         """;
 
     public void save(
@@ -39,6 +40,7 @@ public class MetadataIngestionMetricRepository {
             IngestionMetricJob jobName,
             long successCount,
             long errorCount,
+            long retryCount,
             LocalDateTime startDttm,
             LocalDateTime endDttm,
             String appName) {
@@ -49,6 +51,7 @@ public class MetadataIngestionMetricRepository {
                 jobName.name(),
                 successCount,
                 errorCount,
+                retryCount,
                 Timestamp.valueOf(startDttm),
                 Timestamp.valueOf(endDttm),
                 appName
@@ -1,10 +1,53 @@
 package com.gpb.metadata.ingestion.repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
 
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
 import com.gpb.metadata.ingestion.model.Metadata;
 
 public interface MetadataRepository<T extends Metadata> {
+    /**
+     * Имя таблицы без схемы, например table_metadata
+     */
+    String getTableName();
+
     List<T> findByServiceName(String schema, String serviceName);
+    Map<EntityId, EntityFingerprint> findFingerprintsByServiceName(String schema, String serviceName);
+
+    /**
+     * Потоковое чтение: строки передаются в consumer по мере чтения курсора,
+     * размер выборки в памяти ограничен metadata.sync.fetch-size
+     */
+    void streamByServiceName(String schema, String serviceName, Consumer<T> consumer);
+
+    /**
+     * Страница записей с id > afterId в порядке id (keyset). Каждая страница
+     * читается отдельным запросом, соединение между страницами не удерживается.
+     */
+    List<T> findPageByServiceName(String schema, String serviceName, long afterId, int limit);
+    void streamFingerprintsByServiceName(String schema,
+                                         String serviceName,
+                                         BiConsumer<EntityId, EntityFingerprint> consumer);
+
+    Map<EntityId, EntityFingerprint> findFingerprintsByParents(String schema,
+                                                               String serviceName,
+                                                               Collection<String> parentFqns);
+    Map<EntityId, EntityFingerprint> findChangedSince(String schema,
+                                                      String serviceName,
+                                                      String watermarkColumn,
+                                                      LocalDateTime since,
+                                                      LocalDateTime upTo);
+    Optional<LocalDateTime> findMaxWatermark(String schema, String serviceName, String watermarkColumn);
+    long countByServiceName(String schema, String serviceName);
+    Set<EntityId> findKeysByServiceName(String schema, String serviceName);
+    List<T> findByIds(String schema, String serviceName, Collection<EntityId> ids);
     void deleteByServiceName(String schema, String serviceName);
 }
@@ -5,43 +5,34 @@ import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+import com.gpb.metadata.ingestion.utils.FqnInterner;
+
 import com.gpb.metadata.ingestion.model.postgres.SchemaMetadata;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.List;
 
 @Repository
-public class SchemaMetadataCacheRepository implements MetadataRepository<SchemaMetadata>{
-
-    @Qualifier("jdbcTemplate")
-    private final JdbcTemplate jdbcTemplate;
+public class SchemaMetadataCacheRepository extends AbstractMetadataRepository<SchemaMetadata> {
 
-    public SchemaMetadataCacheRepository(@Qualifier("jdbcTemplate") JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
+    public SchemaMetadataCacheRepository(@Qualifier("jdbcTemplate") JdbcTemplate jdbcTemplate,
+                                         MetadataSyncProperties syncProperties) {
+        super(jdbcTemplate, syncProperties);
     }
-    /**
-     * Получить все записи из нужной схемы по serviceName
-     */
-    public List<SchemaMetadata> findByServiceName(String schema, String serviceName) {
-        String sql = String.format("""
-            SELECT id, parent_fqn, fqn, db_name, name, service_name, hash_data, created_at
-            FROM %s.schema_metadata
-            WHERE service_name = ?
-        """, schema);
-
-        return jdbcTemplate.query(sql, this::mapRow, serviceName);
+
+    @Override
+    public String getTableName() {
+        return "schema_metadata";
     }
 
-    /**
-     * Удалить все записи по serviceName из нужной схемы
-     */
-    public void deleteByServiceName(String schema, String serviceName) {
-        String sql = String.format("DELETE FROM %s.schema_metadata WHERE service_name = ?", schema);
-        jdbcTemplate.update(sql, serviceName);
+    @Override
+    protected String getSelectColumns() {
+        return "id, parent_fqn, fqn, db_name, name, service_name, hash_data, created_at";
     }
 
-    private SchemaMetadata mapRow(ResultSet rs, int rowNum) throws SQLException {
+    @Override
+    protected SchemaMetadata mapRow(ResultSet rs, int rowNum) throws SQLException {
         SchemaMetadata entity = new SchemaMetadata();
         EntityId id = new EntityId(
                 rs.getLong("id"),
@@ -49,9 +40,9 @@ public class SchemaMetadataCacheRepository implements MetadataRepository<SchemaM
         );
         entity.setId(id);
         entity.setFqn(rs.getString("fqn"));
-        entity.setDbName(rs.getString("db_name"));
+        entity.setDbName(FqnInterner.intern(rs.getString("db_name")));
         entity.setName(rs.getString("name"));
-        entity.setServiceName(rs.getString("service_name"));
+        entity.setServiceName(FqnInterner.intern(rs.getString("service_name")));
         entity.setHashData(rs.getString("hash_data"));
         entity.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         return entity;
@@ -0,0 +1,179 @@
+package com.gpb.metadata.ingestion.repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import com.gpb.metadata.ingestion.enums.DbObjectType;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+
+/**
+ * Состояние синхронизации сервисов в основной БД (public.metadata_sync_state).
+ * Используется движком сверки на стороне PostgreSQL: новые, изменённые и
+ * удалённые сущности вычисляются одним FULL OUTER JOIN с таблицей *_metadata.
+ */
+@Repository
+public class SyncStateRepository {
+
+    private static final String TABLE = "public.metadata_sync_state";
+
+    private static final String UPSERT_SQL = """
+        INSERT INTO public.metadata_sync_state (
+            schema_name, service_name, object_type, id, parent_fqn, fqn, hash_data, last_synced_at
+        )
+        VALUES (?, ?, ?, ?, ?, ?, ?, ?)
+        ON CONFLICT (schema_name, service_name, object_type, id, parent_fqn)
+        DO UPDATE SET fqn = EXCLUDED.fqn,
+                      hash_data = EXCLUDED.hash_data,
+                      last_synced_at = EXCLUDED.last_synced_at
+        """;
+
+    private static final String DELETE_SQL = """
+        DELETE FROM public.metadata_sync_state
+        WHERE schema_name = ? AND service_name = ? AND object_type = ? AND id = ? AND parent_fqn = ?
+        """;
+
+    public enum ChangeType { NEW, MODIFIED, DELETED }
+
+    /**
+     * Расхождение между таблицей *_metadata и состоянием синхронизации.
+     * Для DELETED synced содержит сохранённый fqn и hash.
+     */
+    public record SyncStateChange(EntityId id, ChangeType type, EntityFingerprint synced) {
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public SyncStateRepository(@Qualifier("jdbcTemplate") JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * Найти расхождения между schema.sourceTable и состоянием синхронизации
+     * сервиса. Возвращаются только изменившиеся строки.
+     */
+    public List<SyncStateChange> findChanges(String schema,
+                                             String sourceTable,
+                                             String serviceName,
+                                             DbObjectType objectType) {
+        String sql = String.format("""
+            SELECT coalesce(src.id, st.id)                 AS id,
+                   coalesce(src.parent_fqn, st.parent_fqn) AS parent_fqn,
+                   st.fqn                                  AS synced_fqn,
+                   st.hash_data                            AS synced_hash,
+                   CASE
+                       WHEN st.id IS NULL THEN 'NEW'
+                       WHEN src.id IS NULL THEN 'DELETED'
+                       ELSE 'MODIFIED'
+                   END                                     AS change_type
+            FROM (
+                SELECT id, parent_fqn, hash_data
+                FROM %s.%s
+                WHERE service_name = ?
+            ) src
+            FULL OUTER JOIN (
+                SELECT id, parent_fqn, fqn, hash_data
+                FROM %s
+                WHERE schema_name = ? AND service_name = ? AND object_type = ?
+            ) st ON st.id = src.id AND st.parent_fqn = src.parent_fqn
+            WHERE st.id IS NULL
+               OR src.id IS NULL
+               OR src.hash_data IS DISTINCT FROM st.hash_data
+        """, schema, sourceTable, TABLE);
+
+        return jdbcTemplate.query(sql, ps -> {
+            ps.setString(1, serviceName);
+            ps.setString(2, schema);
+            ps.setString(3, serviceName);
+            ps.setString(4, objectType.name());
+        }, (rs, rowNum) -> new SyncStateChange(
+                new EntityId(rs.getLong("id"), rs.getString("parent_fqn")),
+                ChangeType.valueOf(rs.getString("change_type")),
+                new EntityFingerprint(rs.getString("synced_hash"), rs.getString("synced_fqn"))
+        ));
+    }
+
+    /**
+     * Передать сохранённое состояние сервиса в consumer построчно
+     */
+    public void streamByServiceName(String schema,
+                                    String serviceName,
+                                    DbObjectType objectType,
+                                    BiConsumer<EntityId, EntityFingerprint> consumer) {
+        jdbcTemplate.query(
+                "SELECT id, parent_fqn, fqn, hash_data FROM " + TABLE
+                        + " WHERE schema_name = ? AND service_name = ? AND object_type = ?",
+                rs -> {
+                    consumer.accept(
+                            new EntityId(rs.getLong("id"), rs.getString("parent_fqn")),
+                            new EntityFingerprint(rs.getString("hash_data"), rs.getString("fqn"))
+                    );
+                },
+                schema,
+                serviceName,
+                objectType.name()
+        );
+    }
+
+    public void saveAll(String schema,
+                        String serviceName,
+                        DbObjectType objectType,
+                        Map<EntityId, EntityFingerprint> fingerprints) {
+        if (fingerprints.isEmpty()) {
+            return;
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> batch = new ArrayList<>(fingerprints.size());
+        fingerprints.forEach((id, fingerprint) -> batch.add(new Object[] {
+                schema,
+                serviceName,
+                objectType.name(),
+                id.getId(),
+                id.getParentFqn(),
+                fingerprint.getFqn(),
+                fingerprint.getHashData(),
+                now
+        }));
+
+        jdbcTemplate.batchUpdate(UPSERT_SQL, batch);
+    }
+
+    public void deleteAll(String schema,
+                          String serviceName,
+                          DbObjectType objectType,
+                          Collection<EntityId> ids) {
+        if (ids.isEmpty()) {
+            return;
+        }
+
+        List<Object[]> batch = new ArrayList<>(ids.size());
+        ids.forEach(id -> batch.add(new Object[] {
+                schema,
+                serviceName,
+                objectType.name(),
+                id.getId(),
+                id.getParentFqn()
+        }));
+
+        jdbcTemplate.batchUpdate(DELETE_SQL, batch);
+    }
+
+    public void deleteByServiceName(String schema, String serviceName, DbObjectType objectType) {
+        jdbcTemplate.update(
+                "DELETE FROM " + TABLE + " WHERE schema_name = ? AND service_name = ? AND object_type = ?",
+                schema,
+                serviceName,
+                objectType.name()
+        );
+    }
+}
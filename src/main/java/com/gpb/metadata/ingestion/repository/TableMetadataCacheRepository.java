@@ -1,48 +1,77 @@
 package com.gpb.metadata.ingestion.repository;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.model.SchemaDigest;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Repository;
 
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+import com.gpb.metadata.ingestion.utils.FqnInterner;
+
 import com.gpb.metadata.ingestion.model.postgres.TableMetadata;
 
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.util.List;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
 
 @Repository
-public class TableMetadataCacheRepository implements MetadataRepository<TableMetadata>{
+public class TableMetadataCacheRepository extends AbstractMetadataRepository<TableMetadata> {
+
+    public TableMetadataCacheRepository(@Qualifier("jdbcTemplate") JdbcTemplate jdbcTemplate,
+                                        MetadataSyncProperties syncProperties) {
+        super(jdbcTemplate, syncProperties);
+    }
 
-    @Qualifier("jdbcTemplate")
-    private final JdbcTemplate jdbcTemplate;
+    @Override
+    public String getTableName() {
+        return "table_metadata";
+    }
 
-    public TableMetadataCacheRepository(@Qualifier("jdbcTemplate") JdbcTemplate jdbcTemplate) {
-        this.jdbcTemplate = jdbcTemplate;
-    }    /**
-     * Получить все записи по serviceName из выбранной схемы
+    @Override
+    protected String getSelectColumns() {
+        return """
+                id, parent_fqn, fqn, db_name, schema_name, description, name,
+                service_name, data, hash_data, created_at""";
+    }
+
+    /**
+     * Дайджесты таблиц по схемам (parent_fqn) сервиса. Считаются в PostgreSQL,
+     * в JVM приходит по одной строке на схему.
      */
-    public List<TableMetadata> findByServiceName(String schema, String serviceName) {
+    public Map<String, SchemaDigest> findSchemaDigests(String schema, String serviceName) {
         String sql = String.format("""
-            SELECT id, parent_fqn, fqn, db_name, schema_name, description, name, 
-                   service_name, data, hash_data, created_at
-            FROM %s.table_metadata
+            SELECT parent_fqn, max(db_name) AS db_name,
+                   md5(string_agg(id::text || ':' || coalesce(hash_data, ''), ',' ORDER BY id)) AS digest
+            FROM %s.%s
             WHERE service_name = ?
-        """, schema);
+            GROUP BY parent_fqn
+        """, schema, getTableName());
 
-        return jdbcTemplate.query(sql, this::mapRow, serviceName);
+        return jdbcTemplate.query(sql, ps -> ps.setString(1, serviceName), rs -> {
+            Map<String, SchemaDigest> result = new HashMap<>();
+            while (rs.next()) {
+                result.put(rs.getString("parent_fqn"),
+                        new SchemaDigest(rs.getString("db_name"), rs.getString("digest")));
+            }
+            return result;
+        });
     }
 
-    /**
-     * Удалить все записи по serviceName из выбранной схемы
-     */
-    public void deleteByServiceName(String schema, String serviceName) {
-        String sql = String.format("DELETE FROM %s.table_metadata WHERE service_name = ?", schema);
-        jdbcTemplate.update(sql, serviceName);
+    public Optional<TableMetadata> findByFqn(String schema, String serviceName, String fqn) {
+        String sql = String.format("""
+            SELECT %s
+            FROM %s.%s
+            WHERE service_name = ? AND fqn = ?
+        """, getSelectColumns(), schema, getTableName());
+
+        return jdbcTemplate.query(sql, this::mapRow, serviceName, fqn).stream().findFirst();
     }
 
-    private TableMetadata mapRow(ResultSet rs, int rowNum) throws SQLException {
+    @Override
+    protected TableMetadata mapRow(ResultSet rs, int rowNum) throws SQLException {
         TableMetadata entity = new TableMetadata();
         EntityId id = new EntityId(
                 rs.getLong("id"),
@@ -50,26 +79,17 @@ public class TableMetadataCacheRepository implements MetadataRepository<TableMet
         );
         entity.setId(id);
         entity.setFqn(rs.getString("fqn"));
-        entity.setDbName(rs.getString("db_name"));
-        entity.setSchemaName(rs.getString("schema_name"));
+        entity.setDbName(FqnInterner.intern(rs.getString("db_name")));
+        entity.setSchemaName(FqnInterner.intern(rs.getString("schema_name")));
         entity.setDescription(rs.getString("description"));
         entity.setName(rs.getString("name"));
-        entity.setServiceName(rs.getString("service_name"));
+        entity.setServiceName(FqnInterner.intern(rs.getString("service_name")));
 
-        // JSONB -> JsonNode
-        String jsonData = rs.getString("data");
-        if (jsonData != null) {
-            try {
-                ObjectMapper objectMapper = new ObjectMapper();
-                entity.setData(objectMapper.readTree(jsonData));
-            } catch (Exception e) {
-                throw new RuntimeException("Ошибка преобразования JSONB в JsonNode", e);
-            }
-        }
+        // JSONB хранится сжатым, дерево JsonNode не строится
+        entity.setDataJson(rs.getString("data"));
 
         entity.setHashData(rs.getString("hash_data"));
         entity.setCreatedAt(rs.getTimestamp("created_at").toLocalDateTime());
         return entity;
     }
 }
-
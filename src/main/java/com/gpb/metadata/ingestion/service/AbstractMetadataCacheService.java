@@ -1,22 +1,39 @@
 package com.gpb.metadata.ingestion.service;
 
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
-import java.util.function.Function;
-import java.util.stream.Collectors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+import java.util.function.Consumer;
+
+import javax.cache.Cache;
 
 import org.apache.ignite.Ignite;
 import org.apache.ignite.IgniteCache;
+import org.apache.ignite.binary.BinaryObject;
 import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.query.QueryCursor;
 import org.apache.ignite.cache.query.ScanQuery;
 import org.apache.ignite.configuration.CacheConfiguration;
 import org.springframework.beans.factory.annotation.Qualifier;
 
 import com.gpb.metadata.ingestion.cache.CacheComparisonResult;
+import com.gpb.metadata.ingestion.cache.FingerprintDiff;
+import com.gpb.metadata.ingestion.cache.ScopedCache;
+import com.gpb.metadata.ingestion.cache.ScopedCacheFactory;
+import com.gpb.metadata.ingestion.cache.SyncOutcome;
+import com.gpb.metadata.ingestion.config.IgniteConfig;
 import com.gpb.metadata.ingestion.enums.DbObjectType;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
 import com.gpb.metadata.ingestion.model.EntityId;
 import com.gpb.metadata.ingestion.model.Metadata;
+import com.gpb.metadata.ingestion.model.RetryEntry;
+import com.gpb.metadata.ingestion.model.SyncState;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
 import com.gpb.metadata.ingestion.repository.MetadataRepository;
+import com.gpb.metadata.ingestion.repository.SyncStateRepository;
+import com.gpb.metadata.ingestion.repository.SyncStateRepository.SyncStateChange;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -29,167 +46,791 @@ public abstract class AbstractMetadataCacheService<T extends Metadata> {
     protected final Ignite ignite;
     protected final MetadataRepository<T> repository;
     protected final DbObjectType dbObjectTypeType;
+    protected final MetadataSyncProperties syncProperties;
+    protected final SyncStateRepository syncStateRepository;
+    protected final ForkJoinPool diffPool;
+    protected final ScopedCacheFactory cacheFactory;
 
-    protected final Map<String, IgniteCache<EntityId, T>> runtimeCaches = new ConcurrentHashMap<>();
+    protected final Map<String, ScopedCache<EntityId, EntityFingerprint>> runtimeCaches = new ConcurrentHashMap<>();
     protected final String TEMP_CACHE_PREFIX = "temp_%s_";
-    protected final String CACHE_NAME = "runtime_%s_";
+    protected final String CACHE_NAME = "runtime_state_%s_";
+    // Кэши прежнего формата с полными значениями T
+    protected final String LEGACY_CACHE_NAME = "runtime_%s_";
+    // Watermark и счётчики запусков, ключ: <TYPE>_<schema>_<service>
+    protected static final String SYNC_STATE_CACHE_NAME = "runtime_SYNC_STATE";
+    // Журнал повторов: изменения, ещё не подтверждённые ОРД
+    protected final String RETRY_CACHE_NAME = "runtime_retry_%s_";
+
+    private static final int MIGRATION_BATCH_SIZE = 10_000;
 
     /**
-     * Получить или создать runtime кэш по serviceName + schemaName
+     * Получить или создать runtime кэш по serviceName + schemaName.
+     * В кэше хранятся только fingerprint'ы сущностей (hash + fqn).
      */
-    protected IgniteCache<EntityId, T> getOrCreateRuntimeCache(String schemaName, String serviceName) {
+    protected ScopedCache<EntityId, EntityFingerprint> getOrCreateRuntimeCache(String schemaName, String serviceName) {
         String cacheKey = schemaName + "_" + serviceName;
         String cacheName = String.format(CACHE_NAME, dbObjectTypeType.name()) + cacheKey;
 
-        return runtimeCaches.computeIfAbsent(cacheName, name -> {
-            CacheConfiguration<EntityId, T> cacheCfg = new CacheConfiguration<>();
-            cacheCfg.setName(name);
-            cacheCfg.setCacheMode(CacheMode.REPLICATED);
-            cacheCfg.setIndexedTypes(EntityId.class, getMetadataClass());
+        // Кэш мог быть удалён на другом узле (очистка, вытеснение)
+        if (runtimeCaches.containsKey(cacheName)
+                && !cacheFactory.exists(String.format(CACHE_NAME, dbObjectTypeType.name()), cacheKey)) {
+            runtimeCaches.remove(cacheName);
+        }
+
+        // Перенос и восстановление выполняются вне computeIfAbsent: ввод-вывод
+        // внутри него блокировал бы другие ключи той же корзины карты
+        ScopedCache<EntityId, EntityFingerprint> cache = runtimeCaches.get(cacheName);
+        if (cache == null) {
+            ScopedCache<EntityId, EntityFingerprint> created =
+                    cacheFactory.getOrCreate(String.format(CACHE_NAME, dbObjectTypeType.name()), cacheKey);
+            cache = runtimeCaches.putIfAbsent(cacheName, created);
+            if (cache == null) {
+                cache = created;
+                migrateLegacyRuntimeCache(cacheKey, cache);
+            }
+        }
+
+        // Проверяется при каждом обращении: в общем режиме кэш существует и
+        // после вытеснения сервиса другим узлом, поэтому промаха карты нет
+        restoreSpilled(schemaName, serviceName, cache);
+        return cache;
+    }
 
-            return ignite.getOrCreateCache(cacheCfg);
+    /**
+     * Восстановить runtime состояние, вытесненное в public.metadata_sync_state
+     * ({@link #evictRuntimeState}). Повторная отправка в ОРД не требуется.
+     * Флаг spilled читается из реплицированного кэша состояний, поэтому
+     * проверка без вытеснения — локальное чтение.
+     */
+    private void restoreSpilled(String schemaName, String serviceName, ScopedCache<EntityId, EntityFingerprint> target) {
+        IgniteCache<String, SyncState> syncStates = getSyncStateCache();
+        String stateKey = getSyncStateKey(schemaName, serviceName);
+        SyncState state = syncStates.get(stateKey);
+        if (state == null || !state.isSpilled()) {
+            return;
+        }
+
+        Map<EntityId, EntityFingerprint> batch = new HashMap<>();
+        long[] restored = {0};
+        syncStateRepository.streamByServiceName(schemaName, serviceName, dbObjectTypeType, (key, fingerprint) -> {
+            batch.put(key, fingerprint);
+            if (batch.size() >= MIGRATION_BATCH_SIZE) {
+                target.putAll(batch);
+                restored[0] += batch.size();
+                batch.clear();
+            }
         });
+        if (!batch.isEmpty()) {
+            target.putAll(batch);
+            restored[0] += batch.size();
+        }
+
+        syncStateRepository.deleteByServiceName(schemaName, serviceName, dbObjectTypeType);
+        state.setSpilled(false);
+        syncStates.put(stateKey, state);
+        log.info("Restored spilled runtime state {} (schema={}, service={}): {} entries",
+                dbObjectTypeType.getName(), schemaName, serviceName, restored[0]);
+    }
+
+    /**
+     * Вытеснить runtime состояние сервиса из Ignite.
+     *
+     * spill=true  — fingerprint'ы переносятся в public.metadata_sync_state,
+     *               кэш удаляется; при следующем обращении состояние
+     *               восстанавливается из таблицы без отправки в ОРД;
+     * spill=false — состояние удаляется полностью, следующий запуск
+     *               выполнит холодный старт.
+     *
+     * Для сервисов со сверкой в PostgreSQL состояние уже хранится в таблице.
+     */
+    public void evictRuntimeState(String schemaName, String serviceName, boolean spill) {
+        if (isDatabaseDiff(serviceName)) {
+            return;
+        }
+        if (!spill) {
+            destroyRuntimeCache(schemaName, serviceName);
+            return;
+        }
+
+        IgniteCache<String, SyncState> syncStates = getSyncStateCache();
+        String stateKey = getSyncStateKey(schemaName, serviceName);
+        SyncState state = syncStates.get(stateKey);
+        String cacheKey = schemaName + "_" + serviceName;
+        String prefix = String.format(CACHE_NAME, dbObjectTypeType.name());
+        if (state == null || state.isSpilled() || !cacheFactory.exists(prefix, cacheKey)) {
+            return;
+        }
+
+        Map<EntityId, EntityFingerprint> batch = new HashMap<>();
+        long[] spilled = {0};
+        getOrCreateRuntimeCache(schemaName, serviceName).<Map.Entry<EntityId, EntityFingerprint>>scanBinary(
+                null,
+                entry -> new AbstractMap.SimpleImmutableEntry<>(
+                        toEntityId((BinaryObject) entry.getKey()), toFingerprint(entry.getValue())),
+                entry -> {
+                    batch.put(entry.getKey(), entry.getValue());
+                    if (batch.size() >= MIGRATION_BATCH_SIZE) {
+                        syncStateRepository.saveAll(schemaName, serviceName, dbObjectTypeType, batch);
+                        spilled[0] += batch.size();
+                        batch.clear();
+                    }
+                }
+        );
+        if (!batch.isEmpty()) {
+            syncStateRepository.saveAll(schemaName, serviceName, dbObjectTypeType, batch);
+            spilled[0] += batch.size();
+        }
+
+        state.setSpilled(true);
+        syncStates.put(stateKey, state);
+
+        runtimeCaches.remove(prefix + cacheKey);
+        cacheFactory.destroy(prefix, cacheKey);
+        log.info("Spilled runtime state {} (schema={}, service={}): {} entries",
+                dbObjectTypeType.getName(), schemaName, serviceName, spilled[0]);
+    }
+
+    /**
+     * Перенести состояние из runtime кэша прежнего формата (полные T) в
+     * fingerprint кэш и удалить старый кэш. Позволяет не отправлять
+     * повторно весь сервис в ОРД после обновления приложения.
+     */
+    private void migrateLegacyRuntimeCache(String cacheKey, ScopedCache<EntityId, EntityFingerprint> target) {
+        String legacyName = String.format(LEGACY_CACHE_NAME, dbObjectTypeType.name()) + cacheKey;
+        IgniteCache<EntityId, T> legacy = ignite.cache(legacyName);
+        if (legacy == null) {
+            return;
+        }
+        // Полные T (с JsonNode data) не десериализуются: нужны только hashData и fqn
+        IgniteCache<BinaryObject, BinaryObject> binaryLegacy = legacy.withKeepBinary();
+
+        Map<EntityId, EntityFingerprint> batch = new HashMap<>();
+        long migrated = 0;
+
+        try (QueryCursor<Map.Entry<EntityId, EntityFingerprint>> cursor = binaryLegacy.query(
+                new ScanQuery<BinaryObject, BinaryObject>(),
+                entry -> new AbstractMap.SimpleImmutableEntry<>(toEntityId(entry.getKey()), toFingerprint(entry.getValue()))
+        )) {
+            for (Map.Entry<EntityId, EntityFingerprint> entry : cursor) {
+                batch.put(entry.getKey(), entry.getValue());
+                if (batch.size() >= MIGRATION_BATCH_SIZE) {
+                    target.putAll(batch);
+                    migrated += batch.size();
+                    batch.clear();
+                }
+            }
+        }
+
+        if (!batch.isEmpty()) {
+            target.putAll(batch);
+            migrated += batch.size();
+        }
+
+        ignite.destroyCache(legacyName);
+        log.info("Migrated legacy runtime cache {}: {} entries", legacyName, migrated);
     }
 
     /**
-     * Создать временный кэш из данных БД
+     * Создать временный кэш из fingerprint'ов БД
      */
-    protected IgniteCache<EntityId, T> createTempCacheFromDatabase(String schemaName, String serviceName) {
+    protected IgniteCache<EntityId, EntityFingerprint> createTempCacheFromDatabase(String schemaName, String serviceName) {
         String tempCacheName = String.format(TEMP_CACHE_PREFIX, dbObjectTypeType.name()) +
                 schemaName + "_" + serviceName + "_" + System.currentTimeMillis();
 
-        CacheConfiguration<EntityId, T> tempCacheCfg = new CacheConfiguration<>();
+        CacheConfiguration<EntityId, EntityFingerprint> tempCacheCfg = new CacheConfiguration<>();
         tempCacheCfg.setName(tempCacheName);
         tempCacheCfg.setCacheMode(CacheMode.PARTITIONED);
-        tempCacheCfg.setIndexedTypes(EntityId.class, getMetadataClass());
+        tempCacheCfg.setDataRegionName(IgniteConfig.TEMP_REGION);
+
+        IgniteCache<EntityId, EntityFingerprint> tempCache = ignite.getOrCreateCache(tempCacheCfg);
+
+        // Загружаем данные из БД потоково, пачками по fetch-size
+        int chunkSize = Math.max(1, syncProperties.getFetchSize());
+        Map<EntityId, EntityFingerprint> chunk = new HashMap<>();
+        repository.streamFingerprintsByServiceName(schemaName, serviceName, (key, fingerprint) -> {
+            chunk.put(key, fingerprint);
+            if (chunk.size() >= chunkSize) {
+                tempCache.putAll(chunk);
+                chunk.clear();
+            }
+        });
+        if (!chunk.isEmpty()) {
+            tempCache.putAll(chunk);
+        }
+        return tempCache;
+    }
 
-        IgniteCache<EntityId, T> tempCache = ignite.getOrCreateCache(tempCacheCfg);
+    /**
+     * Сравнить runtime кэш с данными БД и найти изменения.
+     *
+     * Сверка выполняется в две фазы:
+     * 1. Из БД читаются только id, parent_fqn, fqn и hash_data. Каждая сторона
+     *    читается ровно один раз: runtime кэш — в карту EntityId -> hash,
+     *    fingerprint'ы БД — одним проходом, во время которого сразу
+     *    определяются новые и изменённые ключи (hash join).
+     * 2. Полные записи (включая JSONB data) загружаются пачками по
+     *    metadata.sync.load-batch-size только для новых и изменённых ключей.
+     *
+     * Fingerprint'ы из runtime кэша запрашиваются только для удалённых записей.
+     * Временный Ignite кэш создаётся только при metadata.sync.temp-cache-enabled=true.
+     */
+    protected CacheComparisonResult<T> compareCaches(String schemaName, String serviceName) {
+        ScopedCache<EntityId, EntityFingerprint> runtimeCache = getOrCreateRuntimeCache(schemaName, serviceName);
+        Map<EntityId, String> runtimeHashes = loadHashes(runtimeCache, null);
+        FingerprintDiff diff;
+
+        if (syncProperties.isTempCacheEnabled()) {
+            diff = new FingerprintDiff(runtimeHashes);
+            IgniteCache<EntityId, EntityFingerprint> tempCache = createTempCacheFromDatabase(schemaName, serviceName);
+            IgniteCache<BinaryObject, BinaryObject> binaryTemp = tempCache.withKeepBinary();
+            try (QueryCursor<Map.Entry<EntityId, EntityFingerprint>> cursor = binaryTemp.query(
+                    new ScanQuery<BinaryObject, BinaryObject>(),
+                    entry -> new AbstractMap.SimpleImmutableEntry<>(toEntityId(entry.getKey()), toFingerprint(entry.getValue()))
+            )) {
+                for (Map.Entry<EntityId, EntityFingerprint> entry : cursor) {
+                    diff.accept(entry.getKey(), entry.getValue());
+                }
+            } finally {
+                tempCache.destroy();
+            }
+        } else if (diffPool.getParallelism() == 1) {
+            // Последовательная сверка: строки курсора сравниваются сразу, без пачек
+            diff = new FingerprintDiff(runtimeHashes);
+            repository.streamFingerprintsByServiceName(schemaName, serviceName, diff::accept);
+        } else {
+            // Fingerprint'ы БД читаются курсором и сверяются пачками по fetch-size
+            FingerprintDiff.Partitioned partitioned = FingerprintDiff.partitioned(runtimeHashes, diffPool);
+            int chunkSize = Math.max(1, syncProperties.getFetchSize());
+            Map<EntityId, EntityFingerprint> chunk = new HashMap<>();
+            repository.streamFingerprintsByServiceName(schemaName, serviceName, (key, fingerprint) -> {
+                chunk.put(key, fingerprint);
+                if (chunk.size() >= chunkSize) {
+                    partitioned.acceptAll(chunk);
+                    chunk.clear();
+                }
+            });
+            partitioned.acceptAll(chunk);
+            diff = partitioned.merge();
+        }
 
-        // Загружаем данные из БД
-        List<T> dbData = repository.findByServiceName(schemaName, serviceName);
-        Map<EntityId, T> tempData = dbData.stream()
-                .collect(Collectors.toMap(
-                        Metadata::getId,
-                        Function.identity()
-                ));
+        // В карте остались только ключи, отсутствующие в БД
+        return toResult(schemaName, serviceName, diff.getNewKeys(), diff.getModifiedKeys(),
+                runtimeCache.getAll(diff.getDeletedKeys()), "Comparison");
+    }
 
-        tempCache.putAll(tempData);
-        return tempCache;
+    /**
+     * Вторая фаза сверки: загрузить полные записи новых и изменённых ключей,
+     * удалённые восстановить из runtime fingerprint'ов.
+     */
+    protected CacheComparisonResult<T> toResult(String schemaName,
+                                                String serviceName,
+                                                Collection<EntityId> newKeys,
+                                                Collection<EntityId> modifiedKeys,
+                                                Map<EntityId, EntityFingerprint> deleted,
+                                                String mode) {
+        CacheComparisonResult<T> result = new CacheComparisonResult<>();
+
+        loadRecords(schemaName, serviceName, newKeys, result::addNewRecord);
+        loadRecords(schemaName, serviceName, modifiedKeys, result::addModifiedRecord);
+        deleted.forEach((key, fingerprint) -> result.addDeletedRecord(key, fromFingerprint(key, fingerprint)));
+
+        log.info("{} result for {} (schema={}): newRecords={}, modifiedRecords={}, deletedRecords={}",
+                mode,
+                dbObjectTypeType.getName(),
+                schemaName,
+                result.getNewRecords().size(),
+                result.getModifiedRecords().size(),
+                result.getDeletedRecords().size()
+        );
+
+        return result;
     }
 
     /**
-     * Сравнить runtime кэш с временным (из БД) и найти изменения
+     * Загрузить полные записи по ключам пачками через id = ANY(?).
+     * Ключи делятся на партиции по hash(parentFqn), партиции загружаются
+     * параллельно на diffPool; consumer должен быть потокобезопасным.
      */
-    protected CacheComparisonResult<T> compareCaches(String schemaName, String serviceName) {
-        IgniteCache<EntityId, T> runtimeCache = getOrCreateRuntimeCache(schemaName, serviceName);
-        IgniteCache<EntityId, T> tempCache = createTempCacheFromDatabase(schemaName, serviceName);
+    protected void loadRecords(String schemaName,
+                               String serviceName,
+                               Collection<EntityId> keys,
+                               BiConsumer<EntityId, T> consumer) {
+        if (keys.isEmpty()) {
+            return;
+        }
 
-        try {
-            CacheComparisonResult<T> result = new CacheComparisonResult<>();
+        int batchSize = Math.max(1, syncProperties.getLoadBatchSize());
+        int partitions = Math.max(1, Math.min(diffPool.getParallelism(), (keys.size() + batchSize - 1) / batchSize));
 
-            findNewRecords(runtimeCache, tempCache, result);
-            findModifiedRecords(runtimeCache, tempCache, result);
-            findDeletedRecords(runtimeCache, tempCache, result);
+        List<List<EntityId>> parts = new ArrayList<>(partitions);
+        for (int i = 0; i < partitions; i++) {
+            parts.add(new ArrayList<>());
+        }
+        keys.forEach(key -> parts.get(FingerprintDiff.partitionOf(key, partitions)).add(key));
+
+        int loaded = partitions == 1
+                ? loadPartition(schemaName, serviceName, parts.get(0), batchSize, consumer)
+                : diffPool.submit(() -> parts.parallelStream()
+                        .mapToInt(part -> loadPartition(schemaName, serviceName, part, batchSize, consumer))
+                        .sum()
+                ).join();
+
+        if (loaded < keys.size()) {
+            log.debug("{} (schema={}, service={}): {} of {} records disappeared between diff phases",
+                    dbObjectTypeType.getName(), schemaName, serviceName, keys.size() - loaded, keys.size());
+        }
+    }
 
-            log.info("Comparison result for {} (schema={}): newRecords={}, modifiedRecords={}, deletedRecords={}",
-                    dbObjectTypeType.getName(),
-                    schemaName,
-                    result.getNewRecords().size(),
-                    result.getModifiedRecords().size(),
-                    result.getDeletedRecords().size()
-            );
+    private int loadPartition(String schemaName,
+                              String serviceName,
+                              List<EntityId> keys,
+                              int batchSize,
+                              BiConsumer<EntityId, T> consumer) {
+        int loaded = 0;
+        for (int from = 0; from < keys.size(); from += batchSize) {
+            List<EntityId> batch = keys.subList(from, Math.min(from + batchSize, keys.size()));
+            loaded += loadBatch(schemaName, serviceName, batch, consumer);
+        }
+        return loaded;
+    }
 
-            return result;
+    private int loadBatch(String schemaName,
+                          String serviceName,
+                          List<EntityId> batch,
+                          BiConsumer<EntityId, T> consumer) {
+        List<T> records = repository.findByIds(schemaName, serviceName, batch);
+        records.forEach(record -> consumer.accept(record.getId(), record));
+        return records.size();
+    }
 
-        } finally {
-            tempCache.destroy();
+    /**
+     * Зафиксировать сущности, PUT которых принят ОРД: обновить runtime
+     * состояние и удалить их из журнала повторов. Для отклонённых
+     * сохраняется текст ошибки, сами записи остаются в журнале.
+     */
+    public void commit(String schemaName, String serviceName, SyncOutcome<T> outcome) {
+        Map<EntityId, EntityFingerprint> accepted = new HashMap<>();
+        outcome.getAccepted().forEach((key, value) -> accepted.put(key, EntityFingerprint.of(value)));
+
+        if (!accepted.isEmpty()) {
+            if (isDatabaseDiff(serviceName)) {
+                syncStateRepository.saveAll(schemaName, serviceName, dbObjectTypeType, accepted);
+            } else {
+                getOrCreateRuntimeCache(schemaName, serviceName).putAll(accepted);
+            }
         }
+        completeRetries(schemaName, serviceName, accepted.keySet(), outcome.getFailed(), false);
     }
 
     /**
-     * Обновить runtime кэш на основе временного кэша
+     * Зафиксировать сущности, DELETE которых принят ОРД
      */
-    protected void updateRuntimeCache(String schemaName, String serviceName, CacheComparisonResult<T> changes) {
-        IgniteCache<EntityId, T> runtimeCache = getOrCreateRuntimeCache(schemaName, serviceName);
+    public void commitDeleted(String schemaName, String serviceName, SyncOutcome<T> outcome) {
+        Set<EntityId> accepted = outcome.getAccepted().keySet();
+
+        if (!accepted.isEmpty()) {
+            if (isDatabaseDiff(serviceName)) {
+                syncStateRepository.deleteAll(schemaName, serviceName, dbObjectTypeType, accepted);
+            } else {
+                getOrCreateRuntimeCache(schemaName, serviceName).removeAll(accepted);
+            }
+        }
+        completeRetries(schemaName, serviceName, accepted, outcome.getFailed(), true);
+    }
 
-        if (!changes.getDeletedRecords().isEmpty()) {
-            runtimeCache.removeAll(changes.getDeletedRecords().keySet());
+    /**
+     * Отклонённые сущности без записи в журнале (холодный старт не вызывает
+     * {@link #markPending}) записываются в него здесь, иначе при
+     * инкрементальной сверке они не нашлись бы до полной сверки
+     */
+    private void completeRetries(String schemaName,
+                                 String serviceName,
+                                 Set<EntityId> accepted,
+                                 Map<EntityId, String> failed,
+                                 boolean deleted) {
+        ScopedCache<EntityId, RetryEntry> retries = getRetryCache(schemaName, serviceName);
+        if (!accepted.isEmpty()) {
+            retries.removeAll(accepted);
+        }
+        if (failed.isEmpty()) {
+            return;
         }
 
-        Map<EntityId, T> recordsToUpdate = new HashMap<>();
-        recordsToUpdate.putAll(changes.getNewRecords());
-        recordsToUpdate.putAll(changes.getModifiedRecords());
+        Map<EntityId, RetryEntry> entries = new HashMap<>(retries.getAll(failed.keySet()));
+        LocalDateTime now = LocalDateTime.now();
+        failed.forEach((key, error) -> {
+            RetryEntry entry = entries.computeIfAbsent(key, k -> pendingEntry(null, deleted, null, now));
+            entry.setLastError(error);
+        });
+        retries.putAll(entries);
+
+        log.warn("{} (schema={}, service={}): {} entities rejected by ORD, kept for retry",
+                dbObjectTypeType.getName(), schemaName, serviceName, failed.size());
+    }
 
-        if (!recordsToUpdate.isEmpty()) {
-            runtimeCache.putAll(recordsToUpdate);
+    /**
+     * Добавить в результат сверки сущности из журнала повторов, которые не
+     * попали в него сами (например, при инкрементальной сверке). Строка
+     * есть в БД — повторяется PUT, строки нет и ожидался DELETE — DELETE.
+     */
+    protected void addRetries(String schemaName, String serviceName, CacheComparisonResult<T> changes) {
+        ScopedCache<EntityId, RetryEntry> retryCache = getRetryCache(schemaName, serviceName);
+        Map<EntityId, RetryEntry> retries = new HashMap<>();
+        retryCache.forEach(retries::put);
+        retries.keySet().removeAll(changes.getPutRecords().keySet());
+        retries.keySet().removeAll(changes.getDeletedRecords().keySet());
+        if (retries.isEmpty()) {
+            return;
         }
+
+        Set<EntityId> loaded = ConcurrentHashMap.newKeySet();
+        loadRecords(schemaName, serviceName, retries.keySet(), (key, record) -> {
+            loaded.add(key);
+            changes.addModifiedRecord(key, record);
+        });
+
+        List<EntityId> obsolete = new ArrayList<>();
+        retries.forEach((key, entry) -> {
+            if (loaded.contains(key)) {
+                return;
+            }
+            if (entry.isDeleted() && entry.getFingerprint() != null) {
+                changes.addDeletedRecord(key, fromFingerprint(key, entry.getFingerprint()));
+            } else {
+                // PUT не подтверждён, а строки уже нет: удаление (если сущность
+                // была в runtime состоянии) найдёт сама сверка
+                obsolete.add(key);
+            }
+        });
+        retryCache.removeAll(obsolete);
+
+        log.info("{} (schema={}, service={}): {} entities from retry ledger added to the run",
+                dbObjectTypeType.getName(), schemaName, serviceName, retries.size() - obsolete.size());
     }
 
     /**
-     * Полная синхронизация: сравнить и обновить
+     * Записать все изменения запуска в журнал повторов до отправки в ОРД.
+     * Подтверждённые запросы удаляют записи в {@link #commit}/{@link #commitDeleted}.
+     */
+    protected void markPending(String schemaName, String serviceName, CacheComparisonResult<T> changes) {
+        ScopedCache<EntityId, RetryEntry> retryCache = getRetryCache(schemaName, serviceName);
+        Set<EntityId> keys = new HashSet<>(changes.getPutRecords().keySet());
+        keys.addAll(changes.getDeletedRecords().keySet());
+        if (keys.isEmpty()) {
+            return;
+        }
+
+        Map<EntityId, RetryEntry> previous = retryCache.getAll(keys);
+        Map<EntityId, RetryEntry> pending = new HashMap<>();
+        LocalDateTime now = LocalDateTime.now();
+
+        changes.getPutRecords().forEach((key, value) ->
+                pending.put(key, pendingEntry(previous.get(key), false, EntityFingerprint.of(value), now)));
+        changes.getDeletedRecords().forEach((key, value) ->
+                pending.put(key, pendingEntry(previous.get(key), true, EntityFingerprint.of(value), now)));
+
+        retryCache.putAll(pending);
+    }
+
+    private RetryEntry pendingEntry(RetryEntry previous, boolean deleted, EntityFingerprint fingerprint, LocalDateTime now) {
+        RetryEntry entry = previous != null ? previous : new RetryEntry();
+        entry.setDeleted(deleted);
+        entry.setFingerprint(fingerprint);
+        entry.setAttempts(entry.getAttempts() + 1);
+        entry.setLastAttemptAt(now);
+        return entry;
+    }
+
+    protected ScopedCache<EntityId, RetryEntry> getRetryCache(String schemaName, String serviceName) {
+        return cacheFactory.getOrCreate(String.format(RETRY_CACHE_NAME, dbObjectTypeType.name()),
+                schemaName + "_" + serviceName);
+    }
+
+    /**
+     * Синхронизация: найти изменения для отправки в ОРД.
+     *
+     * Runtime состояние здесь не обновляется: все изменения записываются в
+     * журнал повторов и фиксируются по мере подтверждения ОРД
+     * ({@link #commit}, {@link #commitDeleted}). Неподтверждённые сущности
+     * из журнала добавляются в следующий запуск.
+     *
+     * При metadata.sync.incremental.enabled=true из БД читаются только строки
+     * с watermark-колонкой больше сохранённой. Полная сверка выполняется при
+     * первом запуске, по запросу ({@link #requestFullSync}) и каждый
+     * full-sync-every-runs запуск.
      */
     public CacheComparisonResult<T> synchronizeWithDatabase(String schemaName, String serviceName) {
-        CacheComparisonResult<T> changes = compareCaches(schemaName, serviceName);
-        updateRuntimeCache(schemaName, serviceName, changes);
+        CacheComparisonResult<T> changes = isDatabaseDiff(serviceName)
+                ? synchronizeInDatabase(schemaName, serviceName)
+                : compareWithRuntime(schemaName, serviceName);
+
+        addRetries(schemaName, serviceName, changes);
+        markPending(schemaName, serviceName, changes);
         return changes;
     }
 
-    private void findNewRecords(IgniteCache<EntityId, T> runtimeCache,
-                                IgniteCache<EntityId, T> tempCache,
-                                CacheComparisonResult<T> result) {
-        Set<EntityId> tempKeys = getAllKeys(tempCache);
-        Set<EntityId> runtimeKeys = getAllKeys(runtimeCache);
-
-        tempKeys.removeAll(runtimeKeys);
+    /**
+     * Холодный старт: runtime состояние сервиса пусто, сверять не с чем.
+     * Для сервисов со сверкой в PostgreSQL не применяется.
+     */
+    public boolean isColdStart(String schemaName, String serviceName) {
+        return syncProperties.getColdStart().isEnabled()
+                && !isDatabaseDiff(serviceName)
+                && getOrCreateRuntimeCache(schemaName, serviceName).isEmpty();
+    }
 
-        for (EntityId key : tempKeys) {
-            T tempData = tempCache.get(key);
-            if (tempData != null) {
-                result.addNewRecord(key, tempData);
+    /**
+     * Загрузка при холодном старте: строки сервиса читаются страницами по
+     * cold-start.batch-size (keyset по id) и передаются в batchConsumer без
+     * fingerprint'ов и временных кэшей. Следующая страница читается после
+     * обработки предыдущей, поэтому в памяти держится не больше одной пачки,
+     * а соединение с БД не удерживается на время отправки в ОРД.
+     * Runtime состояние заполняется через {@link #commit} по мере
+     * подтверждения ОРД; отклонённые сущности {@link #commit} записывает в
+     * журнал повторов, и следующий запуск (в том числе инкрементальный)
+     * отправит их повторно.
+     *
+     * @return количество прочитанных сущностей
+     */
+    public int synchronizeColdStart(String schemaName, String serviceName, Consumer<List<T>> batchConsumer) {
+        MetadataSyncProperties.Incremental incremental = syncProperties.getIncremental();
+        LocalDateTime watermark = incremental.isEnabled()
+                ? repository.findMaxWatermark(schemaName, serviceName, incremental.getWatermarkColumn()).orElse(null)
+                : null;
+
+        int batchSize = Math.max(1, syncProperties.getColdStart().getBatchSize());
+        int total = 0;
+        long afterId = Long.MIN_VALUE;
+        while (true) {
+            List<T> batch = repository.findPageByServiceName(schemaName, serviceName, afterId, batchSize);
+            if (batch.isEmpty()) {
+                break;
+            }
+            total += batch.size();
+            afterId = batch.get(batch.size() - 1).getId().getId();
+            batchConsumer.accept(batch);
+            if (batch.size() < batchSize) {
+                break;
             }
         }
+
+        IgniteCache<String, SyncState> syncStates = getSyncStateCache();
+        SyncState state = new SyncState();
+        state.setSchemaName(schemaName);
+        state.setServiceName(serviceName);
+        state.setWatermark(watermark);
+        state.setLastSyncAt(LocalDateTime.now());
+        syncStates.put(getSyncStateKey(schemaName, serviceName), state);
+
+        log.info("Cold start for {} (schema={}, service={}): {} records streamed",
+                dbObjectTypeType.getName(), schemaName, serviceName, total);
+        return total;
     }
 
-    private void findModifiedRecords(IgniteCache<EntityId, T> runtimeCache,
-                                     IgniteCache<EntityId, T> tempCache,
-                                     CacheComparisonResult<T> result) {
-        Set<EntityId> commonKeys = new HashSet<>(getAllKeys(runtimeCache));
-        commonKeys.retainAll(getAllKeys(tempCache));
+    private CacheComparisonResult<T> compareWithRuntime(String schemaName, String serviceName) {
+        MetadataSyncProperties.Incremental incremental = syncProperties.getIncremental();
+        IgniteCache<String, SyncState> syncStates = getSyncStateCache();
+        String stateKey = getSyncStateKey(schemaName, serviceName);
+        SyncState state = Optional.ofNullable(syncStates.get(stateKey)).orElseGet(SyncState::new);
+
+        // Верхняя граница читается до выборки: строки, появившиеся во время
+        // запуска, попадут в следующий инкремент
+        LocalDateTime watermark = incremental.isEnabled()
+                ? repository.findMaxWatermark(schemaName, serviceName, incremental.getWatermarkColumn()).orElse(null)
+                : null;
+
+        boolean incrementalRun = isIncrementalRun(schemaName, serviceName, state);
+        CacheComparisonResult<T> changes = incrementalRun
+                ? compareIncremental(schemaName, serviceName, state.getWatermark(), watermark)
+                : compareCaches(schemaName, serviceName);
+
+        if (watermark != null) {
+            state.setWatermark(watermark);
+        }
+        state.setSchemaName(schemaName);
+        state.setServiceName(serviceName);
+        state.setIncrementalRuns(incrementalRun ? state.getIncrementalRuns() + 1 : 0);
+        state.setLastSyncAt(LocalDateTime.now());
+        syncStates.put(stateKey, state);
 
-        for (EntityId key : commonKeys) {
-            T runtimeData = runtimeCache.get(key);
-            T tempData = tempCache.get(key);
+        return changes;
+    }
 
-            if (runtimeData != null && tempData != null &&
-                    !Objects.equals(runtimeData.getHashData(), tempData.getHashData())) {
-                result.addModifiedRecord(key, tempData);
+    /**
+     * Сверка на стороне PostgreSQL: расхождения с public.metadata_sync_state
+     * вычисляются одним FULL OUTER JOIN, в JVM приходят только изменившиеся
+     * ключи. Полные записи загружаются так же, как и при сверке с Ignite.
+     * Таблица состояния обновляется при фиксации подтверждённых ОРД сущностей.
+     */
+    protected CacheComparisonResult<T> synchronizeInDatabase(String schemaName, String serviceName) {
+        Set<EntityId> newKeys = new HashSet<>();
+        Set<EntityId> modifiedKeys = new HashSet<>();
+        Map<EntityId, EntityFingerprint> deleted = new HashMap<>();
+
+        for (SyncStateChange change : syncStateRepository.findChanges(
+                schemaName, repository.getTableName(), serviceName, dbObjectTypeType)) {
+            switch (change.type()) {
+                case NEW -> newKeys.add(change.id());
+                case MODIFIED -> modifiedKeys.add(change.id());
+                case DELETED -> deleted.put(change.id(), change.synced());
             }
         }
+
+        return toResult(schemaName, serviceName, newKeys, modifiedKeys, deleted, "Database-side comparison");
     }
 
-    private void findDeletedRecords(IgniteCache<EntityId, T> runtimeCache,
-                                    IgniteCache<EntityId, T> tempCache,
-                                    CacheComparisonResult<T> result) {
-        Set<EntityId> runtimeKeys = getAllKeys(runtimeCache);
-        Set<EntityId> tempKeys = getAllKeys(tempCache);
+    protected boolean isDatabaseDiff(String serviceName) {
+        return syncProperties.getDatabaseDiffServices().contains(serviceName);
+    }
 
-        runtimeKeys.removeAll(tempKeys);
+    /**
+     * Следующий запуск для serviceName выполнит полную сверку
+     */
+    public void requestFullSync(String schemaName, String serviceName) {
+        IgniteCache<String, SyncState> syncStates = getSyncStateCache();
+        String stateKey = getSyncStateKey(schemaName, serviceName);
+        SyncState state = syncStates.get(stateKey);
+        if (state != null) {
+            state.setWatermark(null);
+            syncStates.put(stateKey, state);
+        }
+    }
 
-        for (EntityId key : runtimeKeys) {
-            T runtimeData = runtimeCache.get(key);
-            if (runtimeData != null) {
-                result.addDeletedRecord(key, runtimeData);
+    private boolean isIncrementalRun(String schemaName, String serviceName, SyncState state) {
+        MetadataSyncProperties.Incremental incremental = syncProperties.getIncremental();
+        if (!incremental.isEnabled() || state.getWatermark() == null) {
+            return false;
+        }
+        if (incremental.getFullSyncEveryRuns() > 0
+                && state.getIncrementalRuns() + 1 >= incremental.getFullSyncEveryRuns()) {
+            return false;
+        }
+        return !getOrCreateRuntimeCache(schemaName, serviceName).isEmpty();
+    }
+
+    /**
+     * Инкрементальная сверка: сравниваются только строки, изменившиеся после
+     * since. Удаления определяются по количеству строк: если в БД ровно
+     * runtime + новые с поправкой на журнал повторов, удалений нет и набор
+     * ключей не читается.
+     */
+    protected CacheComparisonResult<T> compareIncremental(String schemaName,
+                                                          String serviceName,
+                                                          LocalDateTime since,
+                                                          LocalDateTime upTo) {
+        ScopedCache<EntityId, EntityFingerprint> runtimeCache = getOrCreateRuntimeCache(schemaName, serviceName);
+
+        Map<EntityId, EntityFingerprint> changed = upTo == null
+                ? Map.of()
+                : repository.findChangedSince(schemaName, serviceName,
+                        syncProperties.getIncremental().getWatermarkColumn(), since, upTo);
+
+        Map<EntityId, String> runtimeChanged = new HashMap<>();
+        runtimeCache.getAll(changed.keySet())
+                .forEach((key, fingerprint) -> runtimeChanged.put(key, fingerprint.getHashData()));
+        FingerprintDiff diff = FingerprintDiff.partitioned(runtimeChanged, changed, diffPool);
+
+        Map<EntityId, EntityFingerprint> deleted = Map.of();
+        long expectedCount = runtimeCache.size() + diff.getNewKeys().size()
+                + ledgerCorrection(schemaName, serviceName, runtimeCache, diff.getNewKeys());
+        long actualCount = repository.countByServiceName(schemaName, serviceName);
+        if (actualCount != expectedCount) {
+            Set<EntityId> dbKeys = repository.findKeysByServiceName(schemaName, serviceName);
+            Map<EntityId, String> runtimeHashes = loadHashes(runtimeCache, null);
+            runtimeHashes.keySet().removeAll(dbKeys);
+            deleted = runtimeCache.getAll(runtimeHashes.keySet());
+        }
+
+        return toResult(schemaName, serviceName, diff.getNewKeys(), diff.getModifiedKeys(), deleted,
+                "Incremental comparison (since=" + since + ")");
+    }
+
+    /**
+     * Поправка ожидаемого числа строк по журналу повторов: строка с
+     * неподтверждённым PUT есть в БД, но может отсутствовать в runtime
+     * состоянии (отклонена на прошлом запуске или при холодном старте);
+     * сущность с неподтверждённым DELETE ещё есть в runtime, а строки уже нет.
+     * Без поправки такие строки взаимно гасили бы одновременное удаление.
+     */
+    private long ledgerCorrection(String schemaName,
+                                  String serviceName,
+                                  ScopedCache<EntityId, EntityFingerprint> runtimeCache,
+                                  Set<EntityId> newKeys) {
+        Map<EntityId, RetryEntry> retries = new HashMap<>();
+        getRetryCache(schemaName, serviceName).forEach(retries::put);
+        retries.keySet().removeAll(newKeys);
+        if (retries.isEmpty()) {
+            return 0;
+        }
+
+        Set<EntityId> tracked = runtimeCache.getAll(retries.keySet()).keySet();
+        long correction = 0;
+        for (Map.Entry<EntityId, RetryEntry> retry : retries.entrySet()) {
+            boolean inRuntime = tracked.contains(retry.getKey());
+            if (!retry.getValue().isDeleted() && !inRuntime) {
+                correction++;
+            } else if (retry.getValue().isDeleted() && inRuntime) {
+                correction--;
             }
         }
+        return correction;
     }
 
-    private Set<EntityId> getAllKeys(IgniteCache<EntityId, T> cache) {
-        Set<EntityId> keys = ConcurrentHashMap.newKeySet();
+    protected IgniteCache<String, SyncState> getSyncStateCache() {
+        CacheConfiguration<String, SyncState> cfg = new CacheConfiguration<>();
+        cfg.setName(SYNC_STATE_CACHE_NAME);
+        cfg.setCacheMode(CacheMode.REPLICATED);
+        return ignite.getOrCreateCache(cfg);
+    }
 
-        cache.query(new ScanQuery<EntityId, T>())
-                .forEach(entry -> keys.add(entry.getKey()));
+    /**
+     * Состояния синхронизации всех сервисов этого типа объектов
+     */
+    public List<SyncState> getSyncStates() {
+        String prefix = dbObjectTypeType.name() + "_";
+        List<SyncState> states = new ArrayList<>();
+        try (QueryCursor<Cache.Entry<String, SyncState>> cursor = getSyncStateCache().query(
+                new ScanQuery<String, SyncState>((key, value) -> key.startsWith(prefix)))) {
+            cursor.forEach(entry -> states.add(entry.getValue()));
+        }
+        return states;
+    }
 
-        return keys;
+    protected String getSyncStateKey(String schemaName, String serviceName) {
+        return dbObjectTypeType.name() + "_" + schemaName + "_" + serviceName;
+    }
+
+    /**
+     * Один проход по кэшу: EntityId -> hashData без передачи полных значений.
+     * Значения не десериализуются: hashData читается как поле BinaryObject.
+     * Если parents задан, читаются только ключи с parentFqn из этого набора.
+     */
+    protected Map<EntityId, String> loadHashes(ScopedCache<EntityId, EntityFingerprint> cache, Set<String> parents) {
+        Map<EntityId, String> hashes = new HashMap<>();
+
+        cache.<Map.Entry<EntityId, String>>scanBinary(
+                parents == null ? null : (key, value) -> parents.contains(((BinaryObject) key).<String>field("parentFqn")),
+                entry -> new AbstractMap.SimpleImmutableEntry<>(
+                        toEntityId((BinaryObject) entry.getKey()), entry.getValue().<String>field("hashData")),
+                entry -> hashes.put(entry.getKey(), entry.getValue())
+        );
+
+        return hashes;
+    }
+
+    /**
+     * EntityId из бинарного ключа без десериализации через reflection
+     */
+    protected static EntityId toEntityId(BinaryObject key) {
+        return new EntityId(key.<Long>field("id"), key.<String>field("parentFqn"));
+    }
+
+    /**
+     * Fingerprint из бинарного значения (EntityFingerprint или полный T):
+     * читаются только поля hashData и fqn
+     */
+    protected static EntityFingerprint toFingerprint(BinaryObject value) {
+        return new EntityFingerprint(value.<String>field("hashData"), value.<String>field("fqn"));
     }
 
     /**
@@ -200,10 +841,17 @@ public abstract class AbstractMetadataCacheService<T extends Metadata> {
         String cacheName = String.format(CACHE_NAME, dbObjectTypeType.name()) + cacheKey;
 
         runtimeCaches.remove(cacheName);
+        cacheFactory.destroy(String.format(CACHE_NAME, dbObjectTypeType.name()), cacheKey);
 
-        if (ignite.cache(cacheName) != null) {  // проверка существования
-            ignite.destroyCache(cacheName);
+        String legacyName = String.format(LEGACY_CACHE_NAME, dbObjectTypeType.name()) + cacheKey;
+        if (ignite.cache(legacyName) != null) {
+            ignite.destroyCache(legacyName);
         }
+
+        cacheFactory.destroy(String.format(RETRY_CACHE_NAME, dbObjectTypeType.name()), cacheKey);
+
+        getSyncStateCache().remove(getSyncStateKey(schemaName, serviceName));
+        syncStateRepository.deleteByServiceName(schemaName, serviceName, dbObjectTypeType);
     }
 
     /**
@@ -213,7 +861,7 @@ public abstract class AbstractMetadataCacheService<T extends Metadata> {
         return new HashSet<>(runtimeCaches.keySet()); // ключи уже cacheName
     }
 
-    public IgniteCache<EntityId, T> getRuntimeCache(String schemaName, String serviceName) {
+    public ScopedCache<EntityId, EntityFingerprint> getRuntimeCache(String schemaName, String serviceName) {
         return getOrCreateRuntimeCache(schemaName, serviceName);
     };
 
@@ -221,4 +869,10 @@ public abstract class AbstractMetadataCacheService<T extends Metadata> {
      * Абстрактный метод для получения класса метаданных
      */
     protected abstract Class<T> getMetadataClass();
+
+    /**
+     * Восстановить сущность из runtime fingerprint'а (для удалённых записей,
+     * которых уже нет в БД). Заполняются только id, fqn и hashData.
+     */
+    protected abstract T fromFingerprint(EntityId id, EntityFingerprint fingerprint);
 }
@@ -19,6 +19,7 @@ public class CacheService {
     private final TableMetadataCacheServiceImpl tableCacheService;
 
     private final MetadataSchemasProperties schemasProperties;    
+    private final IngestionClusterService ingestionClusterService;
 
     public void cleanCache(String schema, String serviceName) {
         final Map<String, String> schemaTypeMap = Map.of(
@@ -28,8 +29,20 @@ public class CacheService {
             "sapiq", schemasProperties.getSapiq()
         );
         String schemaName = schemaTypeMap.get(schema);
-        databaseCacheService.destroyRuntimeCache(schemaName, serviceName);
-        schemaCacheService.destroyRuntimeCache(schemaName, serviceName);
-        tableCacheService.destroyRuntimeCache(schemaName, serviceName);
+        // Не очищаем состояние во время синхронизации сервиса на любом узле
+        ingestionClusterService.runLocked(schemaName, serviceName, () -> {
+            databaseCacheService.destroyRuntimeCache(schemaName, serviceName);
+            schemaCacheService.destroyRuntimeCache(schemaName, serviceName);
+            tableCacheService.destroyRuntimeCache(schemaName, serviceName);
+        });
+    }
+
+    /**
+     * Следующий запуск для serviceName выполнит полную сверку с БД
+     */
+    public void requestFullSync(String schemaName, String serviceName) {
+        databaseCacheService.requestFullSync(schemaName, serviceName);
+        schemaCacheService.requestFullSync(schemaName, serviceName);
+        tableCacheService.requestFullSync(schemaName, serviceName);
     }
 }
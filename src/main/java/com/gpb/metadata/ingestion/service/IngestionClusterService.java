@@ -0,0 +1,128 @@
+package com.gpb.metadata.ingestion.service;
+
+import java.util.UUID;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.IgniteLock;
+import org.apache.ignite.cache.CacheMode;
+import org.apache.ignite.cache.CacheWriteSynchronizationMode;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+
+import com.gpb.metadata.ingestion.config.IgniteConfig;
+import com.gpb.metadata.ingestion.properties.IgniteClusterProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Распределение синхронизаций по узлам кластера.
+ *
+ * Запуск для сервиса выполняется на узле, которому принадлежит партиция
+ * ключа schema_service в PARTITIONED кэше маршрутизации: разные сервисы
+ * расходятся по узлам, повторные запуски одного сервиса попадают на один
+ * узел. Одновременные запуски и очистка одного сервиса исключаются
+ * записью schema_service -> id узла в REPLICATED кэше, которая есть только
+ * на время запуска. Запись проверяется и ставится под одной из LOCK_STRIPES
+ * кластерных блокировок (по хэшу ключа): число блокировок не растёт с
+ * числом сервисов, а блокировка держится лишь на время проверки, поэтому
+ * сервисы с общей полосой друг друга не ждут. Запись узла, покинувшего
+ * кластер, считается свободной.
+ */
+@Service
+@Slf4j
+public class IngestionClusterService {
+    private static final String ROUTING_CACHE_NAME = "runtime_INGESTION_ROUTING";
+    private static final String RUNNING_CACHE_NAME = "runtime_INGESTION_RUNNING";
+    private static final String LOCK_NAME = "ingestion_lock_stripe_%d";
+    private static final int LOCK_STRIPES = 64;
+
+    private final Ignite ignite;
+    private final IgniteClusterProperties clusterProperties;
+
+    public IngestionClusterService(@Qualifier("igniteInstance") Ignite ignite,
+                                   IgniteClusterProperties clusterProperties) {
+        this.ignite = ignite;
+        this.clusterProperties = clusterProperties;
+    }
+
+    /**
+     * Выполнить синхронизацию сервиса на узле-владельце и дождаться её завершения
+     */
+    public void execute(String schemaName, String serviceName) {
+        IngestionJob job = new IngestionJob(schemaName, serviceName);
+        if (!clusterProperties.isAffinityRouting()) {
+            ignite.compute(ignite.cluster().forLocal()).run(job);
+            return;
+        }
+
+        getRoutingCache();
+        ignite.compute().affinityRun(ROUTING_CACHE_NAME, routingKey(schemaName, serviceName), job);
+    }
+
+    /**
+     * Выполнить action как единственный в кластере запуск сервиса. Если
+     * сервис уже обрабатывается другим запуском, бросается IllegalStateException.
+     */
+    public void runLocked(String schemaName, String serviceName, Runnable action) {
+        String key = routingKey(schemaName, serviceName);
+        UUID localNode = ignite.cluster().localNode().id();
+        IgniteCache<String, UUID> running = getRunningCache();
+
+        if (!acquire(running, key, localNode)) {
+            throw new IllegalStateException(String.format(
+                    "Синхронизация %s (schema=%s) уже выполняется", serviceName, schemaName));
+        }
+        try {
+            log.info("Ingestion {} (schema={}) runs on node {}",
+                    serviceName, schemaName, ignite.cluster().localNode().consistentId());
+            action.run();
+        } finally {
+            running.remove(key, localNode);
+        }
+    }
+
+    /**
+     * Отметить запуск сервиса узлом localNode. Проверка и запись выполняются
+     * под блокировкой полосы: запись узла, покинувшего кластер, перехватывается.
+     */
+    private boolean acquire(IgniteCache<String, UUID> running, String key, UUID localNode) {
+        IgniteLock stripe = ignite.reentrantLock(
+                String.format(LOCK_NAME, Math.floorMod(key.hashCode(), LOCK_STRIPES)), true, false, true);
+        stripe.lock();
+        try {
+            UUID owner = running.get(key);
+            if (owner != null && ignite.cluster().node(owner) != null) {
+                return false;
+            }
+            running.put(key, localNode);
+            return true;
+        } finally {
+            stripe.unlock();
+        }
+    }
+
+    private String routingKey(String schemaName, String serviceName) {
+        return schemaName + "_" + serviceName;
+    }
+
+    private IgniteCache<String, String> getRoutingCache() {
+        CacheConfiguration<String, String> cfg = new CacheConfiguration<>();
+        cfg.setName(ROUTING_CACHE_NAME);
+        cfg.setCacheMode(CacheMode.PARTITIONED);
+        cfg.setBackups(0);
+        cfg.setDataRegionName(IgniteConfig.VOLATILE_REGION);
+        return ignite.getOrCreateCache(cfg);
+    }
+
+    private IgniteCache<String, UUID> getRunningCache() {
+        CacheConfiguration<String, UUID> cfg = new CacheConfiguration<>();
+        cfg.setName(RUNNING_CACHE_NAME);
+        cfg.setCacheMode(CacheMode.REPLICATED);
+        // Чтение с любого узла видит последнюю отметку
+        cfg.setWriteSynchronizationMode(CacheWriteSynchronizationMode.FULL_SYNC);
+        cfg.setDataRegionName(IgniteConfig.VOLATILE_REGION);
+        return ignite.getOrCreateCache(cfg);
+    }
+}
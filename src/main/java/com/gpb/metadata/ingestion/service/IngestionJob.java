@@ -0,0 +1,29 @@
+package com.gpb.metadata.ingestion.service;
+
+import org.apache.ignite.lang.IgniteRunnable;
+import org.apache.ignite.resources.SpringResource;
+
+/**
+ * Задача синхронизации сервиса, отправляемая на узел-владелец
+ * ({@link IngestionClusterService}). Сервис обработки берётся из контекста
+ * Spring узла, на котором выполняется задача.
+ */
+public class IngestionJob implements IgniteRunnable {
+    private static final long serialVersionUID = 1L;
+
+    private final String schemaName;
+    private final String serviceName;
+
+    @SpringResource(resourceClass = MetadataHandlerService.class)
+    private transient MetadataHandlerService metadataHandlerService;
+
+    public IngestionJob(String schemaName, String serviceName) {
+        this.schemaName = schemaName;
+        this.serviceName = serviceName;
+    }
+
+    @Override
+    public void run() {
+        metadataHandlerService.startLocal(schemaName, serviceName);
+    }
+}
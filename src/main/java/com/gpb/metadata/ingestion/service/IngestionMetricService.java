@@ -9,6 +9,7 @@ import org.springframework.stereotype.Service;
 import com.gpb.metadata.ingestion.enums.IngestionMetricJob;
 import com.gpb.metadata.ingestion.metrics.MetricCounter;
 import com.gpb.metadata.ingestion.repository.MetadataIngestionMetricRepository;
+import com.gpb.metadata.ingestion.utils.RetryBudget;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -28,8 +29,20 @@ public class IngestionMetricService {
             IngestionMetricJob jobName,
             Function<MetricCounter, T> action) {
 
+        return execute(serviceName, jobName, null, action);
+    }
+
+    /**
+     * retryBudget — бюджет повторов запуска, общий для его этапов
+     */
+    public <T> T execute(
+            String serviceName,
+            IngestionMetricJob jobName,
+            RetryBudget retryBudget,
+            Function<MetricCounter, T> action) {
+
         LocalDateTime startDttm = LocalDateTime.now();
-        MetricCounter counter = new MetricCounter();
+        MetricCounter counter = new MetricCounter(retryBudget);
 
         try {
             return action.apply(counter);
@@ -42,17 +55,19 @@ public class IngestionMetricService {
                         jobName,
                         counter.getSuccessCount(),
                         counter.getErrorCount(),
+                        counter.getRetryCount(),
                         startDttm,
                         endDttm,
                         appName
                 );
 
                 log.info(
-                        "Metric saved. serviceName={}, jobName={}, success={}, errors={}, start={}, end={}",
+                        "Metric saved. serviceName={}, jobName={}, success={}, errors={}, retries={}, start={}, end={}",
                         serviceName,
                         jobName,
                         counter.getSuccessCount(),
                         counter.getErrorCount(),
+                        counter.getRetryCount(),
                         startDttm,
                         endDttm
                 );
@@ -3,4 +3,6 @@ package com.gpb.metadata.ingestion.service;
 public interface MetadataHandlerService {
     public void startAsync(String schemaName ,String serviceName);
     public void start(String schemaName ,String serviceName);
+    // Синхронизация на текущем узле, без маршрутизации по кластеру
+    public void startLocal(String schemaName ,String serviceName);
 }
@@ -0,0 +1,168 @@
+package com.gpb.metadata.ingestion.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.ignite.Ignite;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.gpb.metadata.ingestion.model.SyncState;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+import com.gpb.metadata.ingestion.service.impl.DatabaseMetadataCacheServiceImpl;
+import com.gpb.metadata.ingestion.service.impl.SchemaMetadataCacheServiceImpl;
+import com.gpb.metadata.ingestion.service.impl.TableMetadataCacheServiceImpl;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Вытеснение runtime состояния неактивных сервисов (metadata.sync.eviction).
+ *
+ * Сервис вытесняется, если не синхронизировался дольше idle-ttl, либо если
+ * сервисов в Ignite больше max-services — тогда давнее всего
+ * синхронизированные (LRU по lastSyncAt). Вытеснение выполняется под
+ * блокировкой сервиса и только на старейшем узле кластера.
+ *
+ * Метрики: metadata.runtime.services{state=hot|spilled},
+ * metadata.runtime.evictions{action=spill|drop}.
+ */
+@Service
+@Slf4j
+public class RuntimeEvictionService {
+
+    private final Ignite ignite;
+    private final List<AbstractMetadataCacheService<?>> cacheServices;
+    private final MetadataSyncProperties syncProperties;
+    private final IngestionClusterService ingestionClusterService;
+
+    private final AtomicInteger hotServices = new AtomicInteger();
+    private final AtomicInteger spilledServices = new AtomicInteger();
+    private final Counter spillCounter;
+    private final Counter dropCounter;
+
+    public RuntimeEvictionService(@Qualifier("igniteInstance") Ignite ignite,
+                                  DatabaseMetadataCacheServiceImpl databaseCacheService,
+                                  SchemaMetadataCacheServiceImpl schemaCacheService,
+                                  TableMetadataCacheServiceImpl tableCacheService,
+                                  MetadataSyncProperties syncProperties,
+                                  IngestionClusterService ingestionClusterService,
+                                  MeterRegistry meterRegistry) {
+        this.ignite = ignite;
+        this.cacheServices = List.of(tableCacheService, schemaCacheService, databaseCacheService);
+        this.syncProperties = syncProperties;
+        this.ingestionClusterService = ingestionClusterService;
+
+        Gauge.builder("metadata.runtime.services", hotServices, AtomicInteger::get)
+                .description("Сервисы с runtime состоянием в Ignite")
+                .tag("state", "hot")
+                .register(meterRegistry);
+        Gauge.builder("metadata.runtime.services", spilledServices, AtomicInteger::get)
+                .description("Сервисы, состояние которых вытеснено в PostgreSQL")
+                .tag("state", "spilled")
+                .register(meterRegistry);
+        this.spillCounter = Counter.builder("metadata.runtime.evictions").tag("action", "spill").register(meterRegistry);
+        this.dropCounter = Counter.builder("metadata.runtime.evictions").tag("action", "drop").register(meterRegistry);
+    }
+
+    @Scheduled(cron = "${metadata.sync.eviction.schedule:0 0 * * * ?}")
+    public void evictInactive() {
+        List<ServiceUsage> hot = refreshUsage();
+
+        MetadataSyncProperties.Eviction eviction = syncProperties.getEviction();
+        if (!eviction.isEnabled() || !ignite.cluster().forOldest().node().isLocal()) {
+            return;
+        }
+
+        LocalDateTime idleBefore = LocalDateTime.now().minus(eviction.getIdleTtl());
+        List<ServiceUsage> byLastSync = new ArrayList<>(hot);
+        byLastSync.sort(Comparator.comparing(usage -> usage.lastSyncAt));
+
+        int excess = eviction.getMaxServices() > 0 ? byLastSync.size() - eviction.getMaxServices() : 0;
+        int evicted = 0;
+        for (ServiceUsage usage : byLastSync) {
+            boolean idle = usage.lastSyncAt.isBefore(idleBefore);
+            if (!idle && evicted >= excess) {
+                break;
+            }
+            if (evict(usage, eviction.getAction())) {
+                evicted++;
+            }
+        }
+
+        if (evicted > 0) {
+            log.info("Runtime eviction: {} of {} services evicted ({})", evicted, hot.size(), eviction.getAction());
+            refreshUsage();
+        }
+    }
+
+    /**
+     * Обновить метрики и вернуть сервисы, состояние которых находится в Ignite
+     */
+    private List<ServiceUsage> refreshUsage() {
+        List<ServiceUsage> services = collectUsage();
+        List<ServiceUsage> hot = services.stream().filter(usage -> !usage.spilled).toList();
+        hotServices.set(hot.size());
+        spilledServices.set(services.size() - hot.size());
+        return hot;
+    }
+
+    private boolean evict(ServiceUsage usage, MetadataSyncProperties.EvictionAction action) {
+        boolean spill = action == MetadataSyncProperties.EvictionAction.SPILL;
+        try {
+            ingestionClusterService.runLocked(usage.schemaName, usage.serviceName, () ->
+                    cacheServices.forEach(service -> service.evictRuntimeState(usage.schemaName, usage.serviceName, spill)));
+        } catch (IllegalStateException e) {
+            // Сервис синхронизируется прямо сейчас — вытеснять нечего
+            log.debug("Skip eviction of {} (schema={}): {}", usage.serviceName, usage.schemaName, e.getMessage());
+            return false;
+        }
+
+        (spill ? spillCounter : dropCounter).increment();
+        log.info("Evicted runtime state of {} (schema={}, lastSyncAt={}, action={})",
+                usage.serviceName, usage.schemaName, usage.lastSyncAt, action);
+        return true;
+    }
+
+    /**
+     * Сервисы по состояниям синхронизации всех типов: время последней
+     * синхронизации — максимальное по типам; сервис считается вытесненным,
+     * если вытеснены все его типы
+     */
+    private List<ServiceUsage> collectUsage() {
+        Map<List<String>, ServiceUsage> services = new HashMap<>();
+        for (AbstractMetadataCacheService<?> cacheService : cacheServices) {
+            for (SyncState state : cacheService.getSyncStates()) {
+                if (state.getSchemaName() == null || state.getServiceName() == null || state.getLastSyncAt() == null) {
+                    continue;
+                }
+                services.merge(
+                        List.of(state.getSchemaName(), state.getServiceName()),
+                        new ServiceUsage(state.getSchemaName(), state.getServiceName(),
+                                state.getLastSyncAt(), state.isSpilled()),
+                        ServiceUsage::merge
+                );
+            }
+        }
+        return new ArrayList<>(services.values());
+    }
+
+    private record ServiceUsage(String schemaName, String serviceName, LocalDateTime lastSyncAt, boolean spilled) {
+        ServiceUsage merge(ServiceUsage other) {
+            return new ServiceUsage(
+                    schemaName,
+                    serviceName,
+                    lastSyncAt.isAfter(other.lastSyncAt) ? lastSyncAt : other.lastSyncAt,
+                    spilled && other.spilled
+            );
+        }
+    }
+}
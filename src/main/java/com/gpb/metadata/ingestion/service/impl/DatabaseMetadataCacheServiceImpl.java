@@ -1,10 +1,17 @@
 package com.gpb.metadata.ingestion.service.impl;
 
+import com.gpb.metadata.ingestion.cache.ScopedCacheFactory;
 import com.gpb.metadata.ingestion.enums.DbObjectType;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
 import com.gpb.metadata.ingestion.model.postgres.DatabaseMetadata;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
 import com.gpb.metadata.ingestion.repository.DatabaseMetadataCacheRepository;
+import com.gpb.metadata.ingestion.repository.SyncStateRepository;
 import com.gpb.metadata.ingestion.service.AbstractMetadataCacheService;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.ignite.Ignite;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -14,12 +21,25 @@ public class DatabaseMetadataCacheServiceImpl extends AbstractMetadataCacheServi
     
     public DatabaseMetadataCacheServiceImpl(
             @Qualifier("igniteInstance") Ignite ignite,
-            DatabaseMetadataCacheRepository repository) {
-        super(ignite, repository, DbObjectType.DATABASE);
+            DatabaseMetadataCacheRepository repository,
+            MetadataSyncProperties syncProperties,
+            SyncStateRepository syncStateRepository,
+            @Qualifier("diffPool") ForkJoinPool diffPool,
+            ScopedCacheFactory cacheFactory) {
+        super(ignite, repository, DbObjectType.DATABASE, syncProperties, syncStateRepository, diffPool, cacheFactory);
     }
     
     @Override
     protected Class<DatabaseMetadata> getMetadataClass() {
         return DatabaseMetadata.class;
     }
+
+    @Override
+    protected DatabaseMetadata fromFingerprint(EntityId id, EntityFingerprint fingerprint) {
+        DatabaseMetadata metadata = new DatabaseMetadata();
+        metadata.setId(id);
+        metadata.setFqn(fingerprint.getFqn());
+        metadata.setHashData(fingerprint.getHashData());
+        return metadata;
+    }
 }
@@ -1,6 +1,8 @@
 package com.gpb.metadata.ingestion.service.impl;
 
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Function;
 
 import com.gpb.metadata.ingestion.enums.ServiceType;
 import com.gpb.metadata.ingestion.exceptions.TokenRefreshException;
@@ -9,24 +11,30 @@ import com.gpb.metadata.ingestion.properties.MetadataSchemasProperties;
 import com.gpb.metadata.ingestion.repository.OpenMetadataTableSnapshotRepository;
 import com.gpb.metadata.ingestion.snapshot.TableSnapshot;
 import com.gpb.metadata.ingestion.snapshot.TableSnapshotEntry;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.gpb.metadata.ingestion.cache.CacheComparisonResult;
+import com.gpb.metadata.ingestion.cache.SyncOutcome;
 import com.gpb.metadata.ingestion.dto.DatabaseServiceMetadataDto;
 import com.gpb.metadata.ingestion.dto.mapper.MapperDto;
 import com.gpb.metadata.ingestion.enums.DbObjectType;
 import com.gpb.metadata.ingestion.enums.IngestionMetricJob;
+import com.gpb.metadata.ingestion.model.Metadata;
 import com.gpb.metadata.ingestion.model.postgres.DatabaseMetadata;
 import com.gpb.metadata.ingestion.model.postgres.SchemaMetadata;
 import com.gpb.metadata.ingestion.model.postgres.TableMetadata;
 import com.gpb.metadata.ingestion.properties.WebClientProperties;
+import com.gpb.metadata.ingestion.service.AbstractMetadataCacheService;
+import com.gpb.metadata.ingestion.service.IngestionClusterService;
 import com.gpb.metadata.ingestion.service.IngestionMetricService;
 import com.gpb.metadata.ingestion.service.MetadataHandlerService;
+import com.gpb.metadata.ingestion.utils.JsonSupport;
 import com.gpb.metadata.ingestion.utils.OrdaClient;
+import com.gpb.metadata.ingestion.utils.OrdaConcurrencyLimiter;
+import com.gpb.metadata.ingestion.utils.OrdaConcurrencyLimiter.EndpointClass;
+import com.gpb.metadata.ingestion.utils.RetryBudget;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -47,20 +55,33 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
     private final MetadataSchemasProperties schemasProperties;
 
     private final OrdaClient ordaClient;
+    private final OrdaConcurrencyLimiter concurrencyLimiter;
     private final OpenMetadataTableSnapshotRepository tableSnapshotRepository;
 
     private final IngestionMetricService ingestionMetricService;
-
-    @Value("${ord.api.max-connections:5}")
-    private Integer maxConn;
+    private final IngestionClusterService ingestionClusterService;
 
     @Async
     public void startAsync(String schemaName, String serviceName) {
         start(schemaName,serviceName);
     }
 
+    /**
+     * Запуск синхронизации на узле кластера, которому принадлежит сервис
+     */
     @Override
     public void start(String schemaName, String serviceName) {
+        resolveServiceType(schemaName);
+        ingestionClusterService.execute(schemaName, serviceName);
+    }
+
+    @Override
+    public void startLocal(String schemaName, String serviceName) {
+        ServiceType type = resolveServiceType(schemaName);
+        ingestionClusterService.runLocked(schemaName, serviceName, () -> ingest(schemaName, serviceName, type));
+    }
+
+    private ServiceType resolveServiceType(String schemaName) {
         final Map<String, ServiceType> schemaTypeMap = Map.of(
                 schemasProperties.getPostgres(), ServiceType.POSTGRES,
                 schemasProperties.getMssql(), ServiceType.MSSQL,
@@ -72,12 +93,30 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
         if (type == null) {
             throw new IllegalArgumentException("Неизвестный тип схемы: " + schemaName);
         }
-        CacheComparisonResult<DatabaseMetadata> cacheDatabase =
-            databaseCacheService.synchronizeWithDatabase(schemaName, serviceName);
-        CacheComparisonResult<SchemaMetadata> cacheSchema = 
-            schemaCacheService.synchronizeWithDatabase(schemaName, serviceName);
-        CacheComparisonResult<TableMetadata> cacheTable = 
-            tableCacheService.synchronizeWithDatabase(schemaName, serviceName);
+        return type;
+    }
+
+    private void ingest(String schemaName, String serviceName, ServiceType type) {
+        // Один бюджет повторов запросов к ОРД на все этапы запуска
+        RetryBudget retryBudget = RetryBudget.of(webClientProperties.getRetry());
+
+        /*
+         * Холодный старт (runtime состояние пусто): сверка не выполняется,
+         * строки БД отправляются в ОРД потоком на этапе PUT
+         */
+        boolean coldDatabases = databaseCacheService.isColdStart(schemaName, serviceName);
+        boolean coldSchemas = schemaCacheService.isColdStart(schemaName, serviceName);
+        boolean coldTables = tableCacheService.isColdStart(schemaName, serviceName);
+
+        CacheComparisonResult<DatabaseMetadata> cacheDatabase = coldDatabases
+            ? new CacheComparisonResult<>()
+            : databaseCacheService.synchronizeWithDatabase(schemaName, serviceName);
+        CacheComparisonResult<SchemaMetadata> cacheSchema = coldSchemas
+            ? new CacheComparisonResult<>()
+            : schemaCacheService.synchronizeWithDatabase(schemaName, serviceName);
+        CacheComparisonResult<TableMetadata> cacheTable = coldTables
+            ? new CacheComparisonResult<>()
+            : tableCacheService.synchronizeWithDatabase(schemaName, serviceName);
 
         /**
          * Проверяем наличие DatabaseService в ОРДе
@@ -88,13 +127,12 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
         );
 
         if (!isExists) {
-            ObjectMapper mapper = new ObjectMapper();
             log.info("Creating databaseService: {}", serviceName);
             String dbServiceUrl = webClientProperties.getDatabaseServiceEndpoint();
             String serviceType = type.getValue().substring(0, 1).toUpperCase() + 
                     type.getValue().substring(1);
 
-            ObjectNode connection = mapper.createObjectNode();
+            ObjectNode connection = JsonSupport.MAPPER.createObjectNode();
             ObjectNode connectionConfig = connection.putObject("config");
             connectionConfig.put("type", serviceType);
 
@@ -116,60 +154,119 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
          * 2. Схемы
          * 3. Таблицы
          */
-        Collection<DatabaseMetadata> putDatabases =
-                cacheDatabase.getPutRecords().values();
-        int dbError = ingestionMetricService.execute(
-                serviceName,
-                IngestionMetricJob.DATABASE_UPSERT,
-                metric -> databasePutRequest(
-                        putDatabases,
-                        webClientProperties.getDatabaseEndpoint(),
-                        metric
-                )
-        );
-        log.info("DbService \"{}\". Databases to PUT: {}. With errors: {}.",
-                serviceName,
-                putDatabases.size(),
-                dbError);
+        if (coldDatabases) {
+            coldStartPut(
+                    schemaName,
+                    serviceName,
+                    retryBudget,
+                    IngestionMetricJob.DATABASE_UPSERT,
+                    databaseCacheService,
+                    (batch, metric, outcome) -> databasePutRequest(
+                            batch,
+                            webClientProperties.getDatabaseEndpoint(),
+                            metric,
+                            outcome
+                    )
+            );
+        } else {
+            Collection<DatabaseMetadata> putDatabases =
+                    cacheDatabase.getPutRecords().values();
+            int dbError = this.<DatabaseMetadata>executeAndCommit(
+                    serviceName,
+                    retryBudget,
+                    IngestionMetricJob.DATABASE_UPSERT,
+                    (metric, outcome) -> databasePutRequest(
+                            putDatabases,
+                            webClientProperties.getDatabaseEndpoint(),
+                            metric,
+                            outcome
+                    ),
+                    outcome -> databaseCacheService.commit(schemaName, serviceName, outcome)
+            );
+            log.info("DbService \"{}\". Databases to PUT: {}. With errors: {}.",
+                    serviceName,
+                    putDatabases.size(),
+                    dbError);
+        }
 
-        Collection<SchemaMetadata> putSchemas =
-                cacheSchema.getPutRecords().values();
-        int schemaError = ingestionMetricService.execute(
-                serviceName,
-                IngestionMetricJob.SCHEMA_UPSERT,
-                metric -> schemaPutRequest(
-                        putSchemas,
-                        webClientProperties.getSchemaEndpoint(),
-                        metric
-                )
-        );
-        log.info("DbService \"{}\". Schemas to PUT: {}. With errors: {}.",
-                serviceName,
-                putSchemas.size(),
-                schemaError);
+        if (coldSchemas) {
+            coldStartPut(
+                    schemaName,
+                    serviceName,
+                    retryBudget,
+                    IngestionMetricJob.SCHEMA_UPSERT,
+                    schemaCacheService,
+                    (batch, metric, outcome) -> schemaPutRequest(
+                            batch,
+                            webClientProperties.getSchemaEndpoint(),
+                            metric,
+                            outcome
+                    )
+            );
+        } else {
+            Collection<SchemaMetadata> putSchemas =
+                    cacheSchema.getPutRecords().values();
+            int schemaError = this.<SchemaMetadata>executeAndCommit(
+                    serviceName,
+                    retryBudget,
+                    IngestionMetricJob.SCHEMA_UPSERT,
+                    (metric, outcome) -> schemaPutRequest(
+                            putSchemas,
+                            webClientProperties.getSchemaEndpoint(),
+                            metric,
+                            outcome
+                    ),
+                    outcome -> schemaCacheService.commit(schemaName, serviceName, outcome)
+            );
+            log.info("DbService \"{}\". Schemas to PUT: {}. With errors: {}.",
+                    serviceName,
+                    putSchemas.size(),
+                    schemaError);
+        }
 
         TableSnapshot tableSnapshotBeforePut = tableSnapshotRepository.loadByServiceName(serviceName);
         log.info("DbService \"{}\". Loaded Table snapshot before PUT: {} entities.",
                 serviceName,
                 tableSnapshotBeforePut.size());
 
-        Collection<TableMetadata> putTables =
-                cacheTable.getPutRecords().values();
-        int tableError = ingestionMetricService.execute(
-                serviceName,
-                IngestionMetricJob.TABLE_UPSERT,
-                metric -> tablePutRequest(
-                        putTables,
-                        webClientProperties.getTableEndpoint(),
-                        type,
-                        tableSnapshotBeforePut,
-                        metric
-                )
-        );
-        log.info("DbService \"{}\". Tables to PUT: {}. With errors: {}.",
-                serviceName,
-                putTables.size(),
-                tableError);
+        if (coldTables) {
+            coldStartPut(
+                    schemaName,
+                    serviceName,
+                    retryBudget,
+                    IngestionMetricJob.TABLE_UPSERT,
+                    tableCacheService,
+                    (batch, metric, outcome) -> tablePutRequest(
+                            batch,
+                            webClientProperties.getTableEndpoint(),
+                            type,
+                            tableSnapshotBeforePut,
+                            metric,
+                            outcome
+                    )
+            );
+        } else {
+            Collection<TableMetadata> putTables =
+                    cacheTable.getPutRecords().values();
+            int tableError = this.<TableMetadata>executeAndCommit(
+                    serviceName,
+                    retryBudget,
+                    IngestionMetricJob.TABLE_UPSERT,
+                    (metric, outcome) -> tablePutRequest(
+                            putTables,
+                            webClientProperties.getTableEndpoint(),
+                            type,
+                            tableSnapshotBeforePut,
+                            metric,
+                            outcome
+                    ),
+                    outcome -> tableCacheService.commit(schemaName, serviceName, outcome)
+            );
+            log.info("DbService \"{}\". Tables to PUT: {}. With errors: {}.",
+                    serviceName,
+                    putTables.size(),
+                    tableError);
+        }
 
         // После PUT перечитываем snapshot одним SQL-запросом.
         // Так в snapshot появляются id новых таблиц, необходимые для lineage.
@@ -200,15 +297,18 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
          */
         Collection<TableMetadata> toDeleteTable =
                 cacheTable.getDeletedRecords().values();
-        int tableErrorDel = ingestionMetricService.execute(
+        int tableErrorDel = this.<TableMetadata>executeAndCommit(
                 serviceName,
+                retryBudget,
                 IngestionMetricJob.TABLE_DELETE,
-                metric -> tableDeleteRequest(
+                (metric, outcome) -> tableDeleteRequest(
                         toDeleteTable,
                         webClientProperties.getTableDeleteEndpoint(),
                         tableSnapshotAfterPut,
-                        metric
-                )
+                        metric,
+                        outcome
+                ),
+                outcome -> tableCacheService.commitDeleted(schemaName, serviceName, outcome)
         );
         log.info("DbService \"{}\". Tables to DEL: {}. With errors: {}.",
                 serviceName,
@@ -217,14 +317,17 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
 
         Collection<SchemaMetadata> toDeleteSchema =
                 cacheSchema.getDeletedRecords().values();
-        int schemaErrorDel = ingestionMetricService.execute(
+        int schemaErrorDel = this.<SchemaMetadata>executeAndCommit(
                 serviceName,
+                retryBudget,
                 IngestionMetricJob.SCHEMA_DELETE,
-                metric -> schemaDeleteRequest(
+                (metric, outcome) -> schemaDeleteRequest(
                         toDeleteSchema,
                         webClientProperties.getSchemaDeleteEndpoint(),
-                        metric
-                )
+                        metric,
+                        outcome
+                ),
+                outcome -> schemaCacheService.commitDeleted(schemaName, serviceName, outcome)
         );
         log.info("DbService \"{}\". Schemas to DEL: {}. With errors: {}.",
                 serviceName,
@@ -233,39 +336,55 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
 
         Collection<DatabaseMetadata> toDeleteDatabase =
                 cacheDatabase.getDeletedRecords().values();
-        int dbErrorDel = ingestionMetricService.execute(
+        int dbErrorDel = this.<DatabaseMetadata>executeAndCommit(
                 serviceName,
+                retryBudget,
                 IngestionMetricJob.DATABASE_DELETE,
-                metric -> databaseDeleteRequest(
+                (metric, outcome) -> databaseDeleteRequest(
                         toDeleteDatabase,
                         webClientProperties.getDatabaseDeleteEndpoint(),
-                        metric
-                )
+                        metric,
+                        outcome
+                ),
+                outcome -> databaseCacheService.commitDeleted(schemaName, serviceName, outcome)
         );
         log.info("DbService \"{}\". Databases to DEL: {}. With errors: {}.",
                 serviceName,
                 toDeleteDatabase.size(),
                 dbErrorDel);
+        log.info("DbService \"{}\". ORD requests: {}. Retries: {}.",
+                serviceName,
+                retryBudget.getRequests(),
+                retryBudget.getRetries());
     }
 
     private int databasePutRequest(
             Collection<DatabaseMetadata> meta,
             String endpoint,
-            MetricCounter metric) {
-
-        return Flux.fromIterable(meta)
-                .flatMap(value ->
+            MetricCounter metric,
+            SyncOutcome<DatabaseMetadata> outcome) {
+
+        return putInBatches(
+                Flux.fromIterable(meta),
+                endpoint,
+                EndpointClass.DATABASE,
+                webClientProperties.getBulk().isDatabases(),
+                value -> mapperDto.getDto(
+                        DbObjectType.DATABASE,
+                        value,
+                        null
+                ),
+                (value, body) ->
                         trackRequest(
-                                ordaClient.putRequest(
+                                limitedPut(
+                                        EndpointClass.DATABASE,
                                         endpoint,
-                                        mapperDto.getDto(
-                                                DbObjectType.DATABASE,
-                                                value,
-                                                null
-                                        ),
+                                        body,
                                         Void.class
                                 ),
                                 metric,
+                                value,
+                                outcome,
                                 () -> log.info(
                                         "Успешно создано/обновлено database: {}",
                                         value.getFqn()
@@ -276,8 +395,9 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                         error.getMessage()
                                 )
                         ),
-                        maxConn
-                )
+                metric,
+                outcome
+        )
                 .reduce(0, Integer::sum)
                 .block();
     }
@@ -285,12 +405,13 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
     private int databaseDeleteRequest(
             Collection<DatabaseMetadata> meta,
             String endpoint,
-            MetricCounter metric) {
+            MetricCounter metric,
+            SyncOutcome<DatabaseMetadata> outcome) {
 
         return Flux.fromIterable(meta)
                 .flatMap(value ->
                         trackRequest(
-                                ordaClient.deleteRequest(
+                                limitedDelete(
                                         String.format(
                                                 "%s/%s",
                                                 endpoint,
@@ -299,6 +420,8 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                         true
                                 ),
                                 metric,
+                                value,
+                                outcome,
                                 () -> log.info(
                                         "Успешно удалено {}",
                                         value.getFqn()
@@ -309,7 +432,7 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                         error.getMessage()
                                 )
                         ),
-                        maxConn
+                        concurrencyLimiter.concurrency()
                 )
                 .reduce(0, Integer::sum)
                 .block();
@@ -318,21 +441,30 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
     private int schemaPutRequest(
             Collection<SchemaMetadata> meta,
             String endpoint,
-            MetricCounter metric) {
-
-        return Flux.fromIterable(meta)
-                .flatMap(value ->
+            MetricCounter metric,
+            SyncOutcome<SchemaMetadata> outcome) {
+
+        return putInBatches(
+                Flux.fromIterable(meta),
+                endpoint,
+                EndpointClass.SCHEMA,
+                webClientProperties.getBulk().isSchemas(),
+                value -> mapperDto.getDto(
+                        DbObjectType.SCHEMA,
+                        value,
+                        null
+                ),
+                (value, body) ->
                         trackRequest(
-                                ordaClient.putRequest(
+                                limitedPut(
+                                        EndpointClass.SCHEMA,
                                         endpoint,
-                                        mapperDto.getDto(
-                                                DbObjectType.SCHEMA,
-                                                value,
-                                                null
-                                        ),
+                                        body,
                                         Void.class
                                 ),
                                 metric,
+                                value,
+                                outcome,
                                 () -> log.info(
                                         "Успешно создано/обновлено schema: {}",
                                         value.getFqn()
@@ -343,8 +475,9 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                         error.getMessage()
                                 )
                         ),
-                        maxConn
-                )
+                metric,
+                outcome
+        )
                 .reduce(0, Integer::sum)
                 .block();
     }
@@ -352,12 +485,13 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
     private int schemaDeleteRequest(
             Collection<SchemaMetadata> meta,
             String endpoint,
-            MetricCounter metric) {
+            MetricCounter metric,
+            SyncOutcome<SchemaMetadata> outcome) {
 
         return Flux.fromIterable(meta)
                 .flatMap(value ->
                         trackRequest(
-                                ordaClient.deleteRequest(
+                                limitedDelete(
                                         String.format(
                                                 "%s/%s",
                                                 endpoint,
@@ -366,6 +500,8 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                         true
                                 ),
                                 metric,
+                                value,
+                                outcome,
                                 () -> log.info(
                                         "Успешно удалено {}",
                                         value.getFqn()
@@ -376,7 +512,7 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                         error.getMessage()
                                 )
                         ),
-                        maxConn
+                        concurrencyLimiter.concurrency()
                 )
                 .reduce(0, Integer::sum)
                 .block();
@@ -387,10 +523,11 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
             String endpoint,
             ServiceType serviceType,
             TableSnapshot tableSnapshot,
-            MetricCounter metric) {
+            MetricCounter metric,
+            SyncOutcome<TableMetadata> outcome) {
 
-        return Flux.fromIterable(meta)
-                .flatMap(value -> {
+        Flux<TableMetadata> tables = Flux.fromIterable(meta)
+                .filter(value -> {
 
                     TableSnapshotEntry existing =
                             tableSnapshot.find(value.getFqn()).orElse(null);
@@ -400,18 +537,30 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                 "Пропуск проектной сущности {} (isProjectEntity=true)",
                                 value.getFqn()
                         );
+                        // Проектные сущности не отправляются намеренно — не повторяем
+                        outcome.accepted(value);
 
-                        return Mono.empty();
+                        return false;
                     }
 
-                    Object body = mapperDto.getDto(
-                            DbObjectType.TABLE,
-                            value,
-                            serviceType
-                    );
+                    return true;
+                });
+
+        return putInBatches(
+                tables,
+                endpoint,
+                EndpointClass.TABLE,
+                webClientProperties.getBulk().isTables(),
+                value -> mapperDto.getDto(
+                        DbObjectType.TABLE,
+                        value,
+                        serviceType
+                ),
+                (value, body) -> {
 
                     if (body == null) {
                         metric.error();
+                        outcome.failed(value, "DTO не сформирован");
 
                         log.error(
                                 "Не удалось сформировать DTO для table {}",
@@ -422,12 +571,15 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                     }
 
                     return trackRequest(
-                            ordaClient.putRequest(
+                            limitedPut(
+                                    EndpointClass.TABLE,
                                     endpoint,
                                     body,
                                     Void.class
                             ),
                             metric,
+                            value,
+                            outcome,
                             () -> log.info(
                                     "Успешно создано/обновлено table: {}",
                                     value.getFqn()
@@ -438,8 +590,10 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                     error.getMessage()
                             )
                     );
-
-                }, maxConn)
+                },
+                metric,
+                outcome
+        )
                 .reduce(0, Integer::sum)
                 .block();
     }
@@ -448,7 +602,8 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
             Collection<TableMetadata> meta,
             String endpoint,
             TableSnapshot tableSnapshot,
-            MetricCounter metric) {
+            MetricCounter metric,
+            SyncOutcome<TableMetadata> outcome) {
 
         return Flux.fromIterable(meta)
                 .filter(value -> {
@@ -461,6 +616,7 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                 "Удаление пропущено: таблица {} отсутствует в OMD snapshot",
                                 value.getFqn()
                         );
+                        outcome.accepted(value);
 
                         return false;
                     }
@@ -470,6 +626,7 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                 "Пропуск удаления {} (isProjectEntity=true)",
                                 value.getFqn()
                         );
+                        outcome.accepted(value);
 
                         return false;
                     }
@@ -478,7 +635,7 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                 })
                 .flatMap(value ->
                         trackRequest(
-                                ordaClient.deleteRequest(
+                                limitedDelete(
                                         String.format(
                                                 "%s/%s",
                                                 endpoint,
@@ -487,6 +644,8 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                         true
                                 ),
                                 metric,
+                                value,
+                                outcome,
                                 () -> log.info(
                                         "Успешно удалено {}",
                                         value.getFqn()
@@ -497,7 +656,7 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
                                         error.getMessage()
                                 )
                         ),
-                        maxConn
+                        concurrencyLimiter.concurrency()
                 )
                 .reduce(0, Integer::sum)
                 .block();
@@ -575,13 +734,210 @@ public class MetadataHandlerServiceImpl implements MetadataHandlerService {
         return false;
     }
 
+    /**
+     * trackRequest с фиксацией итога по сущности: принятые ОРД попадают в
+     * runtime состояние, остальные остаются в журнале повторов
+     */
+    private <T, V extends Metadata> Mono<Integer> trackRequest(
+            Mono<T> request,
+            MetricCounter metric,
+            V value,
+            SyncOutcome<V> outcome,
+            Runnable successAction,
+            java.util.function.Consumer<Throwable> errorAction) {
+
+        return trackRequest(
+                request,
+                metric,
+                () -> {
+                    outcome.accepted(value);
+                    successAction.run();
+                },
+                error -> {
+                    outcome.failed(value, error);
+                    errorAction.accept(error);
+                }
+        );
+    }
+
+    /**
+     * Выполнить отправку группы сущностей и зафиксировать её итог, в том
+     * числе если отправка прервана критической ошибкой
+     */
+    private <V extends Metadata> int executeAndCommit(
+            String serviceName,
+            RetryBudget retryBudget,
+            IngestionMetricJob jobName,
+            BiFunction<MetricCounter, SyncOutcome<V>, Integer> action,
+            java.util.function.Consumer<SyncOutcome<V>> commit) {
+
+        SyncOutcome<V> outcome = new SyncOutcome<>();
+        try {
+            return ingestionMetricService.execute(serviceName, jobName, retryBudget,
+                    metric -> action.apply(metric, outcome));
+        } finally {
+            commit.accept(outcome);
+        }
+    }
+
+    /**
+     * Отправка при холодном старте: сущности читаются из БД пачками, каждая
+     * пачка отправляется и фиксируется в runtime состоянии до чтения
+     * следующей
+     */
+    private <V extends Metadata> int coldStartPut(
+            String schemaName,
+            String serviceName,
+            RetryBudget retryBudget,
+            IngestionMetricJob jobName,
+            AbstractMetadataCacheService<V> cacheService,
+            BatchPut<V> put) {
+
+        int[] streamed = {0};
+        int errors = ingestionMetricService.execute(serviceName, jobName, retryBudget, metric -> {
+            int[] batchErrors = {0};
+            streamed[0] = cacheService.synchronizeColdStart(schemaName, serviceName, batch -> {
+                SyncOutcome<V> outcome = new SyncOutcome<>();
+                try {
+                    batchErrors[0] += put.apply(batch, metric, outcome);
+                } finally {
+                    cacheService.commit(schemaName, serviceName, outcome);
+                }
+            });
+            return batchErrors[0];
+        });
+        log.info("DbService \"{}\". Cold start {}: {} streamed. With errors: {}.",
+                serviceName,
+                jobName,
+                streamed[0],
+                errors);
+        return errors;
+    }
+
+    @FunctionalInterface
+    private interface BatchPut<V extends Metadata> {
+        int apply(Collection<V> batch, MetricCounter metric, SyncOutcome<V> outcome);
+    }
+
+    /**
+     * PUT сущностей: поштучно (single) или, при ord.api.bulk.enabled и
+     * включённом для типа bulk, пачками по ord.api.bulk.batch-size. Пачка,
+     * не принятая ОРД целиком, повторяется поштучно через single, поэтому
+     * ошибки в MetricCounter и SyncOutcome считаются по сущностям.
+     * Пачка, отклонённая из-за перегрузки ОРД (429, 5xx, таймауты), поштучно
+     * не повторяется: её сущности остаются в журнале повторов.
+     * single получает DTO, построенный toDto (null — DTO не сформирован);
+     * сущности без DTO сразу идут в single, который фиксирует ошибку.
+     * Доступ на уровне пакета — для тестов.
+     */
+    <V extends Metadata> Flux<Integer> putInBatches(
+            Flux<V> values,
+            String endpoint,
+            EndpointClass endpointClass,
+            boolean bulkForType,
+            Function<V, Object> toDto,
+            BiFunction<V, Object, Mono<Integer>> single,
+            MetricCounter metric,
+            SyncOutcome<V> outcome) {
+
+        WebClientProperties.Bulk bulk = webClientProperties.getBulk();
+        if (!bulk.isEnabled() || !bulkForType) {
+            return values.flatMap(value -> single.apply(value, toDto.apply(value)),
+                    concurrencyLimiter.concurrency());
+        }
+
+        return values
+                .buffer(Math.max(1, bulk.getBatchSize()))
+                .flatMap(batch -> {
+                    // DTO строится один раз и используется и в пачке, и при поштучном повторе
+                    List<V> sent = new ArrayList<>(batch.size());
+                    List<Object> bodies = new ArrayList<>(batch.size());
+                    List<V> withoutDto = new ArrayList<>();
+                    for (V value : batch) {
+                        Object body = toDto.apply(value);
+                        if (body == null) {
+                            withoutDto.add(value);
+                        } else {
+                            sent.add(value);
+                            bodies.add(body);
+                        }
+                    }
+
+                    Mono<Integer> bulkPut = bodies.isEmpty()
+                            ? Mono.just(0)
+                            : concurrencyLimiter.limit(endpointClass, ordaClient.bulkPutRequest(endpoint, bodies))
+                                    .contextWrite(context -> context.put(MetricCounter.class, metric))
+                                    .then(Mono.fromCallable(() -> {
+                                        sent.forEach(value -> {
+                                            metric.success();
+                                            outcome.accepted(value);
+                                        });
+                                        log.info("Успешно создано/обновлено пачкой {}: {} сущностей",
+                                                endpoint, sent.size());
+                                        return 0;
+                                    }))
+                                    .onErrorResume(error -> {
+                                        if (isCriticalError(error)) {
+                                            return Mono.error(error);
+                                        }
+                                        if (OrdaConcurrencyLimiter.isOverload(error)) {
+                                            // Поштучный повтор только увеличит нагрузку на ОРД:
+                                            // сущности остаются в журнале повторов
+                                            sent.forEach(value -> {
+                                                metric.error();
+                                                outcome.failed(value, error);
+                                            });
+                                            log.warn("Bulk PUT {} ({} сущностей) не принят, ОРД перегружен, "
+                                                    + "повтор в следующем запуске: {}",
+                                                    endpoint, sent.size(), error.getMessage());
+                                            return Mono.just(sent.size());
+                                        }
+                                        log.warn("Bulk PUT {} ({} сущностей) не принят, поштучный повтор: {}",
+                                                endpoint, sent.size(), error.getMessage());
+                                        return Flux.range(0, sent.size())
+                                                .concatMap(i -> single.apply(sent.get(i), bodies.get(i)))
+                                                .reduce(0, Integer::sum);
+                                    });
+
+                    // Внутри пачки запросы последовательны: параллелизм
+                    // ограничивает только внешний flatMap
+                    return Flux.fromIterable(withoutDto)
+                            .concatMap(value -> single.apply(value, null))
+                            .concatWith(bulkPut);
+                }, concurrencyLimiter.concurrency());
+    }
+
+    /**
+     * PUT в ОРД под лимитом параллельных запросов класса endpoint'а
+     */
+    private <T> Mono<T> limitedPut(
+            EndpointClass endpointClass,
+            String endpoint,
+            Object requestBody,
+            Class<T> responseType) {
+
+        return concurrencyLimiter.limit(
+                endpointClass,
+                ordaClient.putRequest(endpoint, requestBody, responseType)
+        );
+    }
+
+    private Mono<Void> limitedDelete(String endpoint, boolean recursive) {
+        return concurrencyLimiter.limit(
+                EndpointClass.DELETE,
+                ordaClient.deleteRequest(endpoint, recursive)
+        );
+    }
+
     private <T> Mono<Integer> trackRequest(
             Mono<T> request,
             MetricCounter metric,
             Runnable successAction,
             java.util.function.Consumer<Throwable> errorAction) {
 
+        // MetricCounter в контексте: OrdaClient учитывает в нём повторы
         return request
+                .contextWrite(context -> context.put(MetricCounter.class, metric))
                 .doOnSuccess(response -> {
                     metric.success();
                     successAction.run();
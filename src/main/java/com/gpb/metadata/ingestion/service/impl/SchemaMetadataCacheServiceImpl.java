@@ -1,10 +1,17 @@
 package com.gpb.metadata.ingestion.service.impl;
 
+import com.gpb.metadata.ingestion.cache.ScopedCacheFactory;
 import com.gpb.metadata.ingestion.enums.DbObjectType;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
 import com.gpb.metadata.ingestion.model.postgres.SchemaMetadata;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
 import com.gpb.metadata.ingestion.repository.SchemaMetadataCacheRepository;
+import com.gpb.metadata.ingestion.repository.SyncStateRepository;
 import com.gpb.metadata.ingestion.service.AbstractMetadataCacheService;
 
+import java.util.concurrent.ForkJoinPool;
+
 import org.apache.ignite.Ignite;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
@@ -14,12 +21,25 @@ public class SchemaMetadataCacheServiceImpl extends AbstractMetadataCacheService
     
     public SchemaMetadataCacheServiceImpl(
             @Qualifier("igniteInstance") Ignite ignite,
-            SchemaMetadataCacheRepository repository) {
-        super(ignite, repository, DbObjectType.SCHEMA);
+            SchemaMetadataCacheRepository repository,
+            MetadataSyncProperties syncProperties,
+            SyncStateRepository syncStateRepository,
+            @Qualifier("diffPool") ForkJoinPool diffPool,
+            ScopedCacheFactory cacheFactory) {
+        super(ignite, repository, DbObjectType.SCHEMA, syncProperties, syncStateRepository, diffPool, cacheFactory);
     }
     
     @Override
     protected Class<SchemaMetadata> getMetadataClass() {
         return SchemaMetadata.class;
     }
+
+    @Override
+    protected SchemaMetadata fromFingerprint(EntityId id, EntityFingerprint fingerprint) {
+        SchemaMetadata metadata = new SchemaMetadata();
+        metadata.setId(id);
+        metadata.setFqn(fingerprint.getFqn());
+        metadata.setHashData(fingerprint.getHashData());
+        return metadata;
+    }
 }
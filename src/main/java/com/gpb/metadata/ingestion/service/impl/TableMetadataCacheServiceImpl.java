@@ -1,39 +1,68 @@
 package com.gpb.metadata.ingestion.service.impl;
 
 import com.gpb.metadata.ingestion.cache.CacheComparisonResult;
+import com.gpb.metadata.ingestion.cache.FingerprintDiff;
+import com.gpb.metadata.ingestion.cache.ScopedCache;
+import com.gpb.metadata.ingestion.cache.ScopedCacheFactory;
+import com.gpb.metadata.ingestion.cache.SyncOutcome;
+import com.gpb.metadata.ingestion.config.IgniteConfig;
 import com.gpb.metadata.ingestion.enums.DbObjectType;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
 import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.model.SchemaDigest;
 import com.gpb.metadata.ingestion.model.postgres.TableMetadata;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+import com.gpb.metadata.ingestion.repository.SyncStateRepository;
 import com.gpb.metadata.ingestion.repository.TableMetadataCacheRepository;
 import com.gpb.metadata.ingestion.service.AbstractMetadataCacheService;
 
 import lombok.extern.slf4j.Slf4j;
 
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
-
-import javax.cache.Cache;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import org.apache.ignite.Ignite;
-import org.apache.ignite.IgniteCache;
-import org.apache.ignite.cache.CacheMode;
-import org.apache.ignite.configuration.CacheConfiguration;
+import org.apache.ignite.binary.BinaryObject;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
 @Service
 @Slf4j
 public class TableMetadataCacheServiceImpl extends AbstractMetadataCacheService<TableMetadata> {
 
-    private final Map<String, IgniteCache<String, EntityId>> fqnIndexCaches = new ConcurrentHashMap<>();
-    private static final String FQN_INDEX_CACHE_NAME = "runtime_TABLE_FQN_IDX_%s_%s"; // schema_service
+    private final Map<String, ScopedCache<String, EntityId>> fqnIndexCaches = new ConcurrentHashMap<>();
+    private static final String FQN_INDEX_CACHE_PREFIX = "runtime_TABLE_FQN_IDX_"; // + schema_service
+
+    // Дайджесты схем последней сверки, ключ: parentFqn таблиц
+    private static final String DIGEST_CACHE_PREFIX = "runtime_TABLE_DIGEST_"; // + schema_service
+    // Дайджесты БД, прочитанные текущей сверкой; сохраняются в конце
+    // synchronizeWithDatabase, до подтверждения изменений ОРД (см. storeDigests)
+    private final Map<String, Map<String, SchemaDigest>> pendingDigests = new ConcurrentHashMap<>();
+
+    private final TableMetadataCacheRepository tableRepository;
 
     public TableMetadataCacheServiceImpl(
             @Qualifier("igniteInstance") Ignite ignite,
-            TableMetadataCacheRepository repository
+            TableMetadataCacheRepository repository,
+            MetadataSyncProperties syncProperties,
+            SyncStateRepository syncStateRepository,
+            @Qualifier("diffPool") ForkJoinPool diffPool,
+            ScopedCacheFactory cacheFactory
     ) {
-        super(ignite, repository, DbObjectType.TABLE);
+        super(ignite, repository, DbObjectType.TABLE, syncProperties, syncStateRepository, diffPool, cacheFactory);
+        this.tableRepository = repository;
     }
 
     @Override
@@ -41,55 +70,265 @@ public class TableMetadataCacheServiceImpl extends AbstractMetadataCacheService<
         return TableMetadata.class;
     }
 
-    private IgniteCache<String, EntityId> getOrCreateFqnIndexCache(String schemaName, String serviceName) {
-        String cacheName = String.format(FQN_INDEX_CACHE_NAME, schemaName, serviceName);
+    @Override
+    protected TableMetadata fromFingerprint(EntityId id, EntityFingerprint fingerprint) {
+        TableMetadata metadata = new TableMetadata();
+        metadata.setId(id);
+        metadata.setFqn(fingerprint.getFqn());
+        metadata.setHashData(fingerprint.getHashData());
+        return metadata;
+    }
 
-        return fqnIndexCaches.computeIfAbsent(cacheName, name -> {
-            CacheConfiguration<String, EntityId> cfg = new CacheConfiguration<>();
-            cfg.setName(name);
-            cfg.setCacheMode(CacheMode.REPLICATED);
-            return ignite.getOrCreateCache(cfg);
-        });
+    private ScopedCache<String, EntityId> getOrCreateFqnIndexCache(String schemaName, String serviceName) {
+        String scope = schemaName + "_" + serviceName;
+        if (fqnIndexCaches.containsKey(scope) && !cacheFactory.exists(FQN_INDEX_CACHE_PREFIX, scope)) {
+            fqnIndexCaches.remove(scope);
+        }
+        return fqnIndexCaches.computeIfAbsent(scope, key -> cacheFactory.getOrCreate(FQN_INDEX_CACHE_PREFIX, key, IgniteConfig.VOLATILE_REGION));
     }
 
+    /**
+     * Найти таблицу по fqn. Runtime кэш хранит только fingerprint, поэтому
+     * полная запись читается из БД-источника по id из индекса.
+     */
     public Optional<TableMetadata> findByFqn(String schemaName, String serviceName, String fqn) {
-        IgniteCache<EntityId, TableMetadata> tables = getRuntimeCache(schemaName, serviceName);
-        IgniteCache<String, EntityId> idx = getOrCreateFqnIndexCache(schemaName, serviceName);
+        ScopedCache<String, EntityId> idx = getOrCreateFqnIndexCache(schemaName, serviceName);
 
         EntityId id = idx.get(fqn);
-        if (id == null) return Optional.empty();
-        return Optional.ofNullable(tables.get(id));
+        if (id == null) {
+            // Индекс в in-memory регионе: после рестарта или вытеснения читаем из БД
+            Optional<TableMetadata> table = tableRepository.findByFqn(schemaName, serviceName, fqn);
+            table.ifPresent(t -> idx.put(fqn, t.getId()));
+            return table;
+        }
+        Optional<TableMetadata> table = repository.findByIds(schemaName, serviceName, List.of(id)).stream().findFirst();
+        if (table.isPresent() && fqn.equals(table.get().getFqn())) {
+            return table;
+        }
+        // Индекс не перестраивается каждый запуск: устаревшая запись (таблица
+        // переименована или удалена) исправляется при обращении
+        idx.removeAll(List.of(fqn));
+        Optional<TableMetadata> byFqn = tableRepository.findByFqn(schemaName, serviceName, fqn);
+        byFqn.ifPresent(t -> idx.put(fqn, t.getId()));
+        return byFqn;
     }
 
     @Override
     public CacheComparisonResult<TableMetadata> synchronizeWithDatabase(String schemaName, String serviceName) {
+        String digestKey = schemaName + "_" + serviceName;
+        pendingDigests.remove(digestKey);
+
         CacheComparisonResult<TableMetadata> changes = super.synchronizeWithDatabase(schemaName, serviceName);
-        rebuildFqnIndex(schemaName, serviceName);
+        buildFqnIndexIfEmpty(schemaName, serviceName);
+
+        if (syncProperties.getMerkle().isEnabled() && !isDatabaseDiff(serviceName)) {
+            storeDigests(schemaName, serviceName, pendingDigests.remove(digestKey), changes);
+        }
         return changes;
     }
 
-    private void rebuildFqnIndex(String schemaName, String serviceName) {
-        IgniteCache<EntityId, TableMetadata> tables = getRuntimeCache(schemaName, serviceName);
-        IgniteCache<String, EntityId> idx = getOrCreateFqnIndexCache(schemaName, serviceName);
+    /**
+     * Сверка по Merkle-дереву БД -> схема -> таблица.
+     *
+     * Дайджесты схем считаются в PostgreSQL одним GROUP BY, дайджест БД —
+     * md5 по отсортированным дайджестам её схем. Совпал дайджест БД — все
+     * её схемы пропускаются; совпал дайджест схемы — её таблицы не читаются
+     * ни из БД, ни из runtime кэша. Fingerprint'ы сравниваются только в
+     * изменившихся схемах. Без сохранённых дайджестов выполняется полная сверка.
+     */
+    @Override
+    protected CacheComparisonResult<TableMetadata> compareCaches(String schemaName, String serviceName) {
+        if (!syncProperties.getMerkle().isEnabled()) {
+            return super.compareCaches(schemaName, serviceName);
+        }
+
+        Map<String, SchemaDigest> current = tableRepository.findSchemaDigests(schemaName, serviceName);
+        pendingDigests.put(schemaName + "_" + serviceName, current);
+
+        Map<String, SchemaDigest> stored = loadDigests(schemaName, serviceName);
+        if (stored.isEmpty()) {
+            return super.compareCaches(schemaName, serviceName);
+        }
+
+        Set<String> changedParents = findChangedParents(stored, current);
+        ScopedCache<EntityId, EntityFingerprint> runtimeCache = getOrCreateRuntimeCache(schemaName, serviceName);
+        FingerprintDiff diff = FingerprintDiff.partitioned(
+                changedParents.isEmpty() ? new HashMap<>() : loadHashes(runtimeCache, changedParents),
+                tableRepository.findFingerprintsByParents(schemaName, serviceName, changedParents),
+                diffPool);
+
+        return toResult(schemaName, serviceName, diff.getNewKeys(), diff.getModifiedKeys(),
+                runtimeCache.getAll(diff.getDeletedKeys()),
+                "Merkle comparison (" + changedParents.size() + " of " + current.size() + " schemas changed)");
+    }
+
+    /**
+     * Спуск по дереву: сначала сравниваются дайджесты БД, затем схемы
+     * только внутри изменившихся БД
+     */
+    private Set<String> findChangedParents(Map<String, SchemaDigest> stored, Map<String, SchemaDigest> current) {
+        Map<String, Map<String, String>> storedByDb = groupByDb(stored);
+        Map<String, Map<String, String>> currentByDb = groupByDb(current);
+
+        Set<String> dbNames = new HashSet<>(storedByDb.keySet());
+        dbNames.addAll(currentByDb.keySet());
+
+        Set<String> changed = new HashSet<>();
+        for (String dbName : dbNames) {
+            Map<String, String> before = storedByDb.getOrDefault(dbName, Map.of());
+            Map<String, String> after = currentByDb.getOrDefault(dbName, Map.of());
+            if (rollUp(before).equals(rollUp(after))) {
+                continue;
+            }
+
+            Set<String> parents = new HashSet<>(before.keySet());
+            parents.addAll(after.keySet());
+            for (String parent : parents) {
+                if (!Objects.equals(before.get(parent), after.get(parent))) {
+                    changed.add(parent);
+                }
+            }
+        }
+        return changed;
+    }
+
+    private Map<String, Map<String, String>> groupByDb(Map<String, SchemaDigest> digests) {
+        return digests.entrySet().stream().collect(Collectors.groupingBy(
+                e -> String.valueOf(e.getValue().getDbName()),
+                Collectors.toMap(Map.Entry::getKey, e -> e.getValue().getDigest(), (a, b) -> a, TreeMap::new)
+        ));
+    }
+
+    private String rollUp(Map<String, String> schemaDigests) {
+        String joined = new TreeMap<>(schemaDigests).entrySet().stream()
+                .map(e -> e.getKey() + ":" + e.getValue())
+                .collect(Collectors.joining(","));
+        return DigestUtils.md5DigestAsHex(joined.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Вызывается сразу после сверки: изменения ещё не подтверждены ОРД, и
+     * runtime кэш их не содержит. Поэтому дайджест сохраняется только для
+     * схем без изменений. У схем с изменениями дайджеста нет, и следующая
+     * сверка по дереву в них спустится, даже если ОРД отклонит изменения.
+     *
+     * После полной/Merkle сверки остальные дайджесты заменяются прочитанными
+     * из БД. После инкрементальной сверки дайджесты затронутых схем удаляются.
+     */
+    private void storeDigests(String schemaName,
+                              String serviceName,
+                              Map<String, SchemaDigest> current,
+                              CacheComparisonResult<TableMetadata> changes) {
+        ScopedCache<String, SchemaDigest> digestCache = getOrCreateDigestCache(schemaName, serviceName);
 
-        idx.clear();
+        Set<String> touched = new HashSet<>();
+        changes.getPutRecords().keySet().forEach(id -> touched.add(id.getParentFqn()));
+        changes.getDeletedRecords().keySet().forEach(id -> touched.add(id.getParentFqn()));
 
-        for (Cache.Entry<EntityId, TableMetadata> e : tables) {
-            TableMetadata t = e.getValue();
-            if (t != null && t.getFqn() != null) {
-                idx.put(t.getFqn(), e.getKey());
+        if (current != null) {
+            Map<String, SchemaDigest> unchanged = new HashMap<>(current);
+            unchanged.keySet().removeAll(touched);
+            digestCache.clear();
+            digestCache.putAll(unchanged);
+            return;
+        }
+
+        if (!touched.isEmpty()) {
+            digestCache.removeAll(touched);
+        }
+    }
+
+    private Map<String, SchemaDigest> loadDigests(String schemaName, String serviceName) {
+        Map<String, SchemaDigest> result = new HashMap<>();
+        getOrCreateDigestCache(schemaName, serviceName).forEach(result::put);
+        return result;
+    }
+
+    private ScopedCache<String, SchemaDigest> getOrCreateDigestCache(String schemaName, String serviceName) {
+        return cacheFactory.getOrCreate(DIGEST_CACHE_PREFIX, schemaName + "_" + serviceName, IgniteConfig.VOLATILE_REGION);
+    }
+
+    @Override
+    public void requestFullSync(String schemaName, String serviceName) {
+        super.requestFullSync(schemaName, serviceName);
+
+        if (cacheFactory.exists(DIGEST_CACHE_PREFIX, schemaName + "_" + serviceName)) {
+            getOrCreateDigestCache(schemaName, serviceName).clear();
+        }
+    }
+
+    @Override
+    public void commit(String schemaName, String serviceName, SyncOutcome<TableMetadata> outcome) {
+        super.commit(schemaName, serviceName, outcome);
+
+        Map<String, EntityId> accepted = new HashMap<>();
+        outcome.getAccepted().forEach((key, table) -> {
+            if (table.getFqn() != null) {
+                accepted.put(table.getFqn(), key);
             }
+        });
+        if (!accepted.isEmpty()) {
+            getOrCreateFqnIndexCache(schemaName, serviceName).putAll(accepted);
         }
     }
 
+    @Override
+    public void commitDeleted(String schemaName, String serviceName, SyncOutcome<TableMetadata> outcome) {
+        super.commitDeleted(schemaName, serviceName, outcome);
+
+        Set<String> deleted = new HashSet<>();
+        outcome.getAccepted().values().forEach(table -> {
+            if (table.getFqn() != null) {
+                deleted.add(table.getFqn());
+            }
+        });
+        if (!deleted.isEmpty()) {
+            getOrCreateFqnIndexCache(schemaName, serviceName).removeAll(deleted);
+        }
+    }
+
+    /**
+     * Полное построение индекса только для пустого индекса (рестарт узла,
+     * вытеснение): дальше его ведут commit/commitDeleted, промахи
+     * findByFqn дочитываются из БД
+     */
+    private void buildFqnIndexIfEmpty(String schemaName, String serviceName) {
+        ScopedCache<String, EntityId> idx = getOrCreateFqnIndexCache(schemaName, serviceName);
+        if (!idx.isEmpty()) {
+            return;
+        }
+        ScopedCache<EntityId, EntityFingerprint> tables = getRuntimeCache(schemaName, serviceName);
+
+        // fqn читается из бинарного значения, fingerprint не десериализуется
+        Map<String, EntityId> entries = new HashMap<>();
+        tables.<Map.Entry<String, EntityId>>scanBinary(
+                (key, value) -> value.field("fqn") != null,
+                entry -> new AbstractMap.SimpleImmutableEntry<>(
+                        entry.getValue().<String>field("fqn"), toEntityId((BinaryObject) entry.getKey())),
+                entry -> entries.put(entry.getKey(), entry.getValue())
+        );
+        idx.putAll(entries);
+    }
+
     @Override
     public void destroyRuntimeCache(String schemaName, String serviceName) {
         super.destroyRuntimeCache(schemaName, serviceName);
 
-        String idxName = String.format(FQN_INDEX_CACHE_NAME, schemaName, serviceName);
-        fqnIndexCaches.remove(idxName);
-        if (ignite.cache(idxName) != null) {
-            ignite.destroyCache(idxName);
-        }
+        String scope = schemaName + "_" + serviceName;
+        fqnIndexCaches.remove(scope);
+        cacheFactory.destroy(FQN_INDEX_CACHE_PREFIX, scope);
+        cacheFactory.destroy(DIGEST_CACHE_PREFIX, scope);
+    }
+
+    @Override
+    public void evictRuntimeState(String schemaName, String serviceName, boolean spill) {
+        super.evictRuntimeState(schemaName, serviceName, spill);
+
+        // FQN индекс перестраивается при следующей сверке, без дайджестов
+        // она один раз пройдёт полностью
+        String scope = schemaName + "_" + serviceName;
+        fqnIndexCaches.remove(scope);
+        cacheFactory.destroy(FQN_INDEX_CACHE_PREFIX, scope);
+        cacheFactory.destroy(DIGEST_CACHE_PREFIX, scope);
     }
 }
@@ -0,0 +1,258 @@
+package com.gpb.metadata.ingestion.utils;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.MonoSink;
+
+/**
+ * Адаптивный лимит одновременных запросов (AIMD).
+ *
+ * Успешный запрос с нормальной задержкой увеличивает лимит на 1/limit
+ * (примерно +1 за каждые limit ответов). Перегрузка — ошибка, признанная
+ * overload, или SLOW_SAMPLES ответов подряд с задержкой больше
+ * latencyTolerance * средняя — уменьшает лимит в backoffRatio раз.
+ * Средняя задержка (EWMA) учитывает все успешные ответы, поэтому после
+ * устойчивого сдвига задержки она становится новой базой. Запросы, начатые до последнего уменьшения,
+ * лимит повторно не уменьшают: одна волна ошибок даёт одно снижение.
+ * Прочие ошибки (например, 4xx) на лимит не влияют. При повторах
+ * каждая неудачная попытка учитывается как отдельный ответ, а задержка
+ * считается по последней попытке ({@link Attempts}).
+ */
+public class AimdLimiter {
+    private static final double LATENCY_SMOOTHING = 0.1;
+    private static final int SLOW_SAMPLES = 3;
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final Predicate<Throwable> overload;
+
+    private final Deque<Waiter> waiters = new ArrayDeque<>();
+    private double limit;
+    private int inFlight;
+    private long lastDropAt;
+    private double avgLatencyNanos = -1;
+    private int slowSamples;
+
+    public AimdLimiter(int initialLimit,
+                       int minLimit,
+                       int maxLimit,
+                       double backoffRatio,
+                       double latencyTolerance,
+                       Predicate<Throwable> overload) {
+        this.minLimit = Math.max(1, minLimit);
+        this.maxLimit = Math.max(this.minLimit, maxLimit);
+        this.limit = Math.max(this.minLimit, Math.min(this.maxLimit, initialLimit));
+        this.backoffRatio = backoffRatio;
+        this.latencyTolerance = latencyTolerance;
+        this.overload = overload;
+        this.lastDropAt = System.nanoTime();
+    }
+
+    /**
+     * Выполнить request, когда число запросов в работе меньше текущего лимита
+     */
+    public <T> Mono<T> run(Mono<T> request) {
+        return Mono.<Waiter>create(this::acquire)
+                .flatMap(waiter -> {
+                    if (!waiter.deliver()) {
+                        // Подписчик отменён, слот уже возвращён в cancel
+                        return Mono.<T>empty();
+                    }
+                    Attempts attempts = new Attempts(this, waiter.grantedAt);
+                    AtomicBoolean released = new AtomicBoolean();
+                    return request
+                            .contextWrite(context -> context.put(Attempts.class, attempts))
+                            .doOnSuccess(value -> {
+                                if (released.compareAndSet(false, true)) {
+                                    release(attempts.startedAt, null, false);
+                                }
+                            })
+                            .doOnError(error -> {
+                                if (released.compareAndSet(false, true)) {
+                                    release(attempts.startedAt, error, false);
+                                }
+                            })
+                            .doOnCancel(() -> {
+                                if (released.compareAndSet(false, true)) {
+                                    release(attempts.startedAt, null, true);
+                                }
+                            });
+                });
+    }
+
+    public synchronized int getLimit() {
+        return (int) limit;
+    }
+
+    public synchronized int getInFlight() {
+        return inFlight;
+    }
+
+    private void acquire(MonoSink<Waiter> sink) {
+        Waiter waiter = new Waiter(sink);
+        // До постановки в очередь: отмена в любой момент видит актуальное состояние
+        sink.onCancel(() -> cancel(waiter));
+
+        boolean granted;
+        synchronized (this) {
+            if (waiter.state.get() != Waiter.WAITING) {
+                return;
+            }
+            granted = inFlight < (int) limit && waiter.grant();
+            if (granted) {
+                inFlight++;
+            } else {
+                waiters.add(waiter);
+            }
+        }
+        if (granted) {
+            waiter.signal();
+        }
+    }
+
+    /**
+     * Отмена ожидающего: из очереди он просто удаляется. Если слот уже
+     * выдан, но до подписчика не дошёл (release выдал его вне блокировки),
+     * слот возвращается здесь, иначе он был бы потерян.
+     */
+    private void cancel(Waiter waiter) {
+        if (waiter.state.compareAndSet(Waiter.WAITING, Waiter.CANCELLED)) {
+            synchronized (this) {
+                waiters.remove(waiter);
+            }
+        } else if (waiter.state.compareAndSet(Waiter.GRANTED, Waiter.CANCELLED)) {
+            release(waiter.grantedAt, null, true);
+        }
+    }
+
+    private void release(long startedAt, Throwable error, boolean cancelled) {
+        List<Waiter> granted = new ArrayList<>();
+        synchronized (this) {
+            inFlight--;
+            if (!cancelled) {
+                adjust(startedAt, error);
+            }
+            while (inFlight < (int) limit && !waiters.isEmpty()) {
+                Waiter waiter = waiters.poll();
+                // Отменённые пропускаются: их слот не занимается
+                if (waiter.grant()) {
+                    inFlight++;
+                    granted.add(waiter);
+                }
+            }
+        }
+        granted.forEach(Waiter::signal);
+    }
+
+    private synchronized void failedAttempt(long startedAt, Throwable error) {
+        // Лимит только уменьшается или не меняется: очередь разбирать не нужно
+        adjust(startedAt, error);
+    }
+
+    private void adjust(long startedAt, Throwable error) {
+        long now = System.nanoTime();
+
+        if (error != null) {
+            if (overload.test(error)) {
+                decrease(startedAt, now);
+            }
+            return;
+        }
+
+        long latency = now - startedAt;
+        boolean slow = avgLatencyNanos > 0 && latency > avgLatencyNanos * latencyTolerance;
+        // Средняя учитывает и медленные ответы: при устойчивом росте задержки
+        // (например, таблицы с большим числом колонок) она догоняет новый уровень
+        avgLatencyNanos = avgLatencyNanos < 0
+                ? latency
+                : avgLatencyNanos * (1 - LATENCY_SMOOTHING) + latency * LATENCY_SMOOTHING;
+
+        if (slow) {
+            // Одиночный выброс перегрузкой не считается
+            if (++slowSamples >= SLOW_SAMPLES) {
+                slowSamples = 0;
+                decrease(startedAt, now);
+            }
+            return;
+        }
+        slowSamples = 0;
+        limit = Math.min(maxLimit, limit + 1.0 / limit);
+    }
+
+    private void decrease(long startedAt, long now) {
+        if (startedAt > lastDropAt) {
+            limit = Math.max(minLimit, limit * backoffRatio);
+            lastDropAt = now;
+        }
+    }
+
+    /**
+     * Попытки запроса внутри одного слота. Кладётся в контекст подписки:
+     * повторяющий запрос код (OrdaClient) сообщает о неудачной попытке,
+     * и 429/5xx, исправленный повтором, всё равно уменьшает лимит; начало
+     * новой попытки отмечается, и задержка считается по ней, без ожидания
+     * между попытками. Слот на время ожидания не освобождается: при
+     * перегрузке это дополнительно сдерживает поток запросов.
+     */
+    public static final class Attempts {
+        private final AimdLimiter limiter;
+        private volatile long startedAt;
+
+        private Attempts(AimdLimiter limiter, long startedAt) {
+            this.limiter = limiter;
+            this.startedAt = startedAt;
+        }
+
+        public void failed(Throwable error) {
+            limiter.failedAttempt(startedAt, error);
+        }
+
+        public void started() {
+            startedAt = System.nanoTime();
+        }
+    }
+
+    /**
+     * Ожидающий слот запрос: WAITING -> GRANTED -> DELIVERED, либо
+     * CANCELLED из WAITING или GRANTED
+     */
+    private static final class Waiter {
+        static final int WAITING = 0;
+        static final int GRANTED = 1;
+        static final int DELIVERED = 2;
+        static final int CANCELLED = 3;
+
+        final MonoSink<Waiter> sink;
+        final AtomicInteger state = new AtomicInteger(WAITING);
+        volatile long grantedAt;
+
+        Waiter(MonoSink<Waiter> sink) {
+            this.sink = sink;
+        }
+
+        boolean grant() {
+            if (state.compareAndSet(WAITING, GRANTED)) {
+                grantedAt = System.nanoTime();
+                return true;
+            }
+            return false;
+        }
+
+        void signal() {
+            sink.success(this);
+        }
+
+        boolean deliver() {
+            return state.compareAndSet(GRANTED, DELIVERED);
+        }
+    }
+}
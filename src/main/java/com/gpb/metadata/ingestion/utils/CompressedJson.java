@@ -0,0 +1,77 @@
+package com.gpb.metadata.ingestion.utils;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Компактное хранение JSON payload'а: UTF-8 байты, сжатые Deflater.
+ * Колоночные метаданные таблиц хорошо сжимаются (повторяющиеся ключи и типы),
+ * а дерево JsonNode занимает на порядок больше исходного JSON.
+ */
+public final class CompressedJson {
+
+    private CompressedJson() {
+    }
+
+    public static byte[] compress(String json) {
+        if (json == null) {
+            return null;
+        }
+        return compress(json.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static byte[] compress(byte[] json) {
+        if (json == null) {
+            return null;
+        }
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DeflaterOutputStream deflaterOut = new DeflaterOutputStream(out, deflater)) {
+            deflaterOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка сжатия JSON", e);
+        } finally {
+            deflater.end();
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Сжатие в формате gzip (Content-Encoding: gzip для HTTP запросов)
+     */
+    public static byte[] gzip(byte[] json) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, json.length / 4));
+        try (GZIPOutputStream gzipOut = new GZIPOutputStream(out)) {
+            gzipOut.write(json);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка сжатия JSON", e);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Поток несжатого JSON для чтения Jackson'ом без промежуточной строки
+     */
+    public static InputStream open(byte[] compressed) {
+        return new InflaterInputStream(new ByteArrayInputStream(compressed));
+    }
+
+    public static String decompress(byte[] compressed) {
+        if (compressed == null) {
+            return null;
+        }
+        try (InputStream in = open(compressed)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка распаковки JSON", e);
+        }
+    }
+}
@@ -0,0 +1,48 @@
+package com.gpb.metadata.ingestion.utils;
+
+import java.lang.ref.WeakReference;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.stream.IntStream;
+
+/**
+ * Дедупликация повторяющихся фрагментов FQN (parent_fqn, имена сервиса,
+ * БД и схемы). Тысячи таблиц одной схемы ссылаются на один экземпляр
+ * строки: её hashCode вычисляется один раз, а equals сводится к сравнению
+ * ссылок.
+ *
+ * Полные FQN сущностей уникальны и не интернируются. Пул слабый: строка
+ * остаётся в нём, пока на неё ссылается хотя бы одна сущность, поэтому
+ * размер пула не ограничивается и не сбрасывается. Пул разбит на
+ * STRIPES частей со своей блокировкой, чтобы параллельная сверка не
+ * упиралась в один монитор.
+ */
+public final class FqnInterner {
+
+    private static final int STRIPES = 64;
+
+    private static final List<Map<String, WeakReference<String>>> POOLS = IntStream.range(0, STRIPES)
+            .<Map<String, WeakReference<String>>>mapToObj(i -> new WeakHashMap<>())
+            .toList();
+
+    private FqnInterner() {
+    }
+
+    public static String intern(String value) {
+        if (value == null) {
+            return null;
+        }
+        int hash = value.hashCode();
+        Map<String, WeakReference<String>> pool = POOLS.get((hash ^ (hash >>> 16)) & (STRIPES - 1));
+        synchronized (pool) {
+            WeakReference<String> ref = pool.get(value);
+            String existing = ref == null ? null : ref.get();
+            if (existing != null) {
+                return existing;
+            }
+            pool.put(value, new WeakReference<>(value));
+            return value;
+        }
+    }
+}
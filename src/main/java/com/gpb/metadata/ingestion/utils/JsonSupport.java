@@ -0,0 +1,24 @@
+package com.gpb.metadata.ingestion.utils;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.gpb.metadata.ingestion.model.schema.TableData;
+
+/**
+ * Общий ObjectMapper слоя моделей. ObjectMapper, ObjectReader и ObjectWriter
+ * потокобезопасны после настройки, поэтому создаются один раз.
+ */
+public final class JsonSupport {
+
+    public static final ObjectMapper MAPPER = new ObjectMapper()
+            .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+
+    public static final ObjectReader TABLE_DATA_READER = MAPPER.readerFor(TableData.class);
+
+    public static final ObjectWriter TABLE_DATA_WRITER = MAPPER.writerFor(TableData.class);
+
+    private JsonSupport() {
+    }
+}
@@ -2,26 +2,43 @@ package com.gpb.metadata.ingestion.utils;
 
 import java.net.InetAddress;
 import java.net.URI;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 
 import org.springframework.http.HttpHeaders;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.ClientResponse;
 import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.gpb.metadata.ingestion.config.KeycloakConfig;
 import com.gpb.metadata.ingestion.exceptions.OrdaAuthException;
+import com.gpb.metadata.ingestion.exceptions.OrdaBulkException;
+import com.gpb.metadata.ingestion.exceptions.OrdaHttpException;
 import com.gpb.metadata.ingestion.exceptions.TokenRefreshException;
 import com.gpb.metadata.ingestion.log.SvoiCustomLogger;
+import com.gpb.metadata.ingestion.metrics.MetricCounter;
 import com.gpb.metadata.ingestion.properties.WebClientProperties;
 import com.gpb.metadata.ingestion.service.OrdaTokenProvider;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import reactor.core.publisher.Mono;
 import reactor.core.scheduler.Schedulers;
+import reactor.util.retry.Retry;
 
 @Service
 @RequiredArgsConstructor
+@Slf4j
 public class OrdaClient {
 
     private final SvoiCustomLogger svoiCustomLogger;
@@ -29,6 +46,8 @@ public class OrdaClient {
     private final WebClientProperties webClientProperties;
     private final KeycloakConfig keycloakConfig;
     private final OrdaTokenProvider tokenProvider;
+    // ObjectMapper Spring Boot: та же настройка, что у кодека WebClient
+    private final ObjectMapper objectMapper;
 
     /**
      * Выполняет запрос с текущим access token. При первом HTTP 401 токен
@@ -56,19 +75,148 @@ public class OrdaClient {
                 );
     }
 
+    /**
+     * Повтор идемпотентного запроса (PUT, DELETE) при временной ошибке ОРД:
+     * коды из ord.api.retry.statuses, ошибки соединения, таймауты.
+     *
+     * Задержка растёт экспоненциально от min-backoff до max-backoff со
+     * случайным разбросом jitter; Retry-After ответа используется как
+     * нижняя граница задержки. Повторы учитываются в MetricCounter из
+     * контекста подписки и ограничены его бюджетом запуска (RetryBudget).
+     */
+    private <T> Mono<T> withRetry(String method, String endpoint, Mono<T> request) {
+        WebClientProperties.Retry retry = webClientProperties.getRetry();
+        if (!retry.isEnabled() || retry.getMaxAttempts() <= 1) {
+            return request;
+        }
+
+        return Mono.deferContextual(context -> {
+            MetricCounter metric = context.getOrDefault(MetricCounter.class, null);
+            RetryBudget budget = metric == null ? null : metric.getRetryBudget();
+            if (budget != null) {
+                budget.onRequest();
+            }
+
+            return request.retryWhen(Retry.from(signals -> signals.concatMap(signal -> {
+                Throwable error = signal.failure();
+                long attempt = signal.totalRetries() + 1;
+                if (attempt >= retry.getMaxAttempts() || !isTransient(error, retry)) {
+                    return Mono.error(error);
+                }
+
+                Duration retryAfter = error instanceof OrdaHttpException httpError
+                        ? httpError.getRetryAfter()
+                        : null;
+                if (retryAfter != null && retryAfter.compareTo(retry.getMaxRetryAfter()) > 0) {
+                    return Mono.error(error);
+                }
+
+                if (budget != null && !budget.tryAcquire()) {
+                    if (budget.markExhausted()) {
+                        log.warn("Бюджет повторов запуска исчерпан ({} повторов на {} запросов), "
+                                + "ошибки ОРД больше не повторяются", budget.getRetries(), budget.getRequests());
+                    }
+                    return Mono.error(error);
+                }
+
+                Duration delay = backoff(signal.totalRetries(), retry);
+                if (retryAfter != null && retryAfter.compareTo(delay) > 0) {
+                    delay = retryAfter;
+                }
+                if (metric != null) {
+                    metric.retry();
+                }
+                // Перегрузка, исправленная повтором, всё равно уменьшает лимит
+                context.<AimdLimiter.Attempts>getOrEmpty(AimdLimiter.Attempts.class)
+                        .ifPresent(attempts -> attempts.failed(error));
+                log.warn("{} {}: попытка {} из {} не удалась ({}), повтор через {} мс",
+                        method, endpoint, attempt, retry.getMaxAttempts(), error.getMessage(), delay.toMillis());
+                // Лимитер считает задержку от начала новой попытки, а не с первой
+                return Mono.delay(delay)
+                        .doOnNext(tick -> context.<AimdLimiter.Attempts>getOrEmpty(AimdLimiter.Attempts.class)
+                                .ifPresent(AimdLimiter.Attempts::started));
+            })));
+        });
+    }
+
+    private static Duration backoff(long retries, WebClientProperties.Retry retry) {
+        long min = retry.getMinBackoff().toMillis();
+        long max = Math.max(min, retry.getMaxBackoff().toMillis());
+        long base = retries >= 30 ? max : Math.min(max, min << retries);
+        double jitter = Math.max(0, Math.min(1, retry.getJitter()));
+        return Duration.ofMillis((long) (base * (1 - jitter * ThreadLocalRandom.current().nextDouble())));
+    }
+
+    static boolean isTransient(Throwable error, WebClientProperties.Retry retry) {
+        Throwable current = error;
+        while (current != null) {
+            if (current instanceof OrdaHttpException httpError) {
+                return retry.getStatuses().contains(httpError.getStatus());
+            }
+            if (current instanceof TimeoutException
+                    || current instanceof io.netty.handler.timeout.TimeoutException
+                    || current instanceof WebClientRequestException) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+
+    /**
+     * Retry-After: число секунд или HTTP-дата; null, если заголовка нет
+     * или он не разобран
+     */
+    static Duration parseRetryAfter(ClientResponse response) {
+        String value = response.headers().asHttpHeaders().getFirst(HttpHeaders.RETRY_AFTER);
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Duration until = Duration.between(ZonedDateTime.now(),
+                        ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME));
+                return until.isNegative() ? Duration.ZERO : until;
+            } catch (Exception ignored) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Тело сериализуется (и при необходимости сжимается) один раз на
+     * Schedulers.parallel(), event loop Netty только отправляет байты.
+     * Повтор после 401 и при временных ошибках использует уже
+     * подготовленное тело.
+     */
     public <T> Mono<T> putRequest(
             @NonNull String endpoint,
             @NonNull Object requestBody,
             @NonNull Class<T> responseType) {
 
-        return withAuth(token ->
-                putRequestInternal(endpoint, requestBody, token, responseType)
-        );
+        return Mono.fromCallable(() -> encodeBody(requestBody))
+                .subscribeOn(Schedulers.parallel())
+                .flatMap(body -> withRetry("PUT", endpoint, withAuth(token ->
+                        putRequestInternal(endpoint, body, token, responseType)
+                )));
+    }
+
+    private EncodedBody encodeBody(Object requestBody) throws JsonProcessingException {
+        byte[] json = objectMapper.writeValueAsBytes(requestBody);
+        WebClientProperties.Compression compression = webClientProperties.getCompression();
+        if (compression.isEnabled() && json.length >= compression.getMinSize()) {
+            return new EncodedBody(CompressedJson.gzip(json), true);
+        }
+        return new EncodedBody(json, false);
     }
 
+    private record EncodedBody(byte[] bytes, boolean gzip) {}
+
     private <T> Mono<T> putRequestInternal(
             String endpoint,
-            Object requestBody,
+            EncodedBody requestBody,
             String token,
             Class<T> responseType) {
 
@@ -80,7 +228,12 @@ public class OrdaClient {
             return webClient.put()
                     .uri(endpoint)
                     .header(HttpHeaders.AUTHORIZATION, "Bearer " + token)
-                    .bodyValue(requestBody)
+                    .headers(headers -> {
+                        if (requestBody.gzip()) {
+                            headers.set(HttpHeaders.CONTENT_ENCODING, "gzip");
+                        }
+                    })
+                    .bodyValue(requestBody.bytes())
                     .exchangeToMono(response -> {
                         long duration = System.currentTimeMillis() - start;
 
@@ -108,7 +261,8 @@ public class OrdaClient {
                                             );
                                         }
 
-                                        return Mono.error(new RuntimeException(err));
+                                        return Mono.error(new OrdaHttpException(
+                                                response.statusCode().value(), err, parseRetryAfter(response)));
                                     });
                         }
 
@@ -129,8 +283,27 @@ public class OrdaClient {
         });
     }
 
+    /**
+     * PUT пачки сущностей в bulk endpoint. Ответ ОРД (BulkOperationResult)
+     * проверяется: если отклонена хотя бы одна сущность, возвращается
+     * {@link OrdaBulkException}, чтобы вызывающий повторил пачку поштучно.
+     */
+    public Mono<Void> bulkPutRequest(@NonNull String endpoint, @NonNull List<?> requestBodies) {
+        return putRequest(endpoint + webClientProperties.getBulk().getSuffix(), requestBodies, JsonNode.class)
+                .flatMap(result -> {
+                    int failed = result.path("numberOfRowsFailed").asInt(0);
+                    String status = result.path("status").asText("success");
+                    if (failed > 0 || !"success".equalsIgnoreCase(status)) {
+                        return Mono.error(new OrdaBulkException(String.format(
+                                "Bulk PUT %s: status=%s, failed %d of %d",
+                                endpoint, status, failed, requestBodies.size())));
+                    }
+                    return Mono.<Void>empty();
+                });
+    }
+
     public Mono<Void> deleteRequest(@NonNull String endpoint, boolean recursive) {
-        return withAuth(token -> deleteRequestInternal(endpoint, token, recursive));
+        return withRetry("DELETE", endpoint, withAuth(token -> deleteRequestInternal(endpoint, token, recursive)));
     }
 
     private Mono<Void> deleteRequestInternal(
@@ -183,7 +356,11 @@ public class OrdaClient {
                                         }
 
                                         return Mono.error(
-                                                new RuntimeException(err)
+                                                new OrdaHttpException(
+                                                        response.statusCode().value(),
+                                                        err,
+                                                        parseRetryAfter(response)
+                                                )
                                         );
                                     });
                         }
@@ -0,0 +1,104 @@
+package com.gpb.metadata.ingestion.utils;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeoutException;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import com.gpb.metadata.ingestion.exceptions.OrdaHttpException;
+import com.gpb.metadata.ingestion.properties.WebClientProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import reactor.core.publisher.Mono;
+
+/**
+ * Ограничение параллельных запросов к ОРД по классам endpoint'ов.
+ *
+ * При ord.api.adaptive.enabled=false действует фиксированный
+ * ord.api.max-connections (ограничение через flatMap). Иначе у каждого
+ * класса свой {@link AimdLimiter}: лимит растёт, пока ОРД отвечает без
+ * ошибок и без роста задержки, и снижается на 429, 5xx, таймаутах и
+ * ошибках соединения.
+ *
+ * Метрики: orda.concurrency.limit{endpoint}, orda.concurrency.inflight{endpoint}.
+ */
+@Component
+public class OrdaConcurrencyLimiter {
+
+    public enum EndpointClass {
+        DATABASE,
+        SCHEMA,
+        TABLE,
+        DELETE
+    }
+
+    private final WebClientProperties.Adaptive adaptive;
+    private final int maxConn;
+    private final Map<EndpointClass, AimdLimiter> limiters = new EnumMap<>(EndpointClass.class);
+
+    public OrdaConcurrencyLimiter(WebClientProperties webClientProperties,
+                                  @Value("${ord.api.max-connections:5}") int maxConn,
+                                  MeterRegistry meterRegistry) {
+        this.adaptive = webClientProperties.getAdaptive();
+        this.maxConn = maxConn;
+
+        if (adaptive.isEnabled()) {
+            for (EndpointClass endpoint : EndpointClass.values()) {
+                AimdLimiter limiter = new AimdLimiter(
+                        adaptive.getInitialLimit() > 0 ? adaptive.getInitialLimit() : maxConn,
+                        adaptive.getMinLimit(),
+                        adaptive.getMaxLimit(),
+                        adaptive.getBackoffRatio(),
+                        adaptive.getLatencyTolerance(),
+                        OrdaConcurrencyLimiter::isOverload
+                );
+                limiters.put(endpoint, limiter);
+
+                String tag = endpoint.name().toLowerCase();
+                Gauge.builder("orda.concurrency.limit", limiter, AimdLimiter::getLimit)
+                        .description("Текущий лимит параллельных запросов к ОРД")
+                        .tag("endpoint", tag)
+                        .register(meterRegistry);
+                Gauge.builder("orda.concurrency.inflight", limiter, AimdLimiter::getInFlight)
+                        .tag("endpoint", tag)
+                        .register(meterRegistry);
+            }
+        }
+    }
+
+    /**
+     * Параллелизм flatMap: при адаптивном лимите запросы ограничивает
+     * limiter, flatMap только не даёт превысить max-limit
+     */
+    public int concurrency() {
+        return adaptive.isEnabled() ? adaptive.getMaxLimit() : maxConn;
+    }
+
+    public <T> Mono<T> limit(EndpointClass endpoint, Mono<T> request) {
+        AimdLimiter limiter = limiters.get(endpoint);
+        return limiter == null ? request : limiter.run(request);
+    }
+
+    /**
+     * 429, 5xx, таймауты и ошибки соединения: признак перегрузки ОРД
+     */
+    public static boolean isOverload(Throwable error) {
+        Throwable current = error;
+        while (current != null) {
+            if (current instanceof OrdaHttpException httpError) {
+                return httpError.getStatus() == 429 || httpError.getStatus() >= 500;
+            }
+            if (current instanceof TimeoutException
+                    || current instanceof io.netty.handler.timeout.TimeoutException
+                    || current instanceof WebClientRequestException) {
+                return true;
+            }
+            current = current.getCause();
+        }
+        return false;
+    }
+}
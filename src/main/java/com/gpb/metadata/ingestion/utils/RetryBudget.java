@@ -0,0 +1,65 @@
+package com.gpb.metadata.ingestion.utils;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.gpb.metadata.ingestion.properties.WebClientProperties;
+
+/**
+ * Бюджет повторов запросов к ОРД на один запуск синхронизации сервиса.
+ *
+ * Допускается не больше minRetries + ratio * (число запросов) повторов,
+ * поэтому при деградации ОРД повторы добавляют к трафику не больше доли
+ * ratio, а не max-attempts на каждый запрос.
+ */
+public class RetryBudget {
+    private final int minRetries;
+    private final double ratio;
+
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong retries = new AtomicLong();
+    private final AtomicBoolean exhausted = new AtomicBoolean();
+
+    public RetryBudget(int minRetries, double ratio) {
+        this.minRetries = Math.max(0, minRetries);
+        this.ratio = Math.max(0, ratio);
+    }
+
+    public static RetryBudget of(WebClientProperties.Retry retry) {
+        return new RetryBudget(retry.getBudgetMinRetries(), retry.getBudgetRatio());
+    }
+
+    public void onRequest() {
+        requests.incrementAndGet();
+    }
+
+    /**
+     * Занять один повтор. false — бюджет запуска исчерпан
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            long used = retries.get();
+            if (used >= minRetries + (long) (ratio * requests.get())) {
+                return false;
+            }
+            if (retries.compareAndSet(used, used + 1)) {
+                return true;
+            }
+        }
+    }
+
+    /**
+     * true только при первом вызове: исчерпание бюджета логируется один раз
+     */
+    public boolean markExhausted() {
+        return exhausted.compareAndSet(false, true);
+    }
+
+    public long getRequests() {
+        return requests.get();
+    }
+
+    public long getRetries() {
+        return retries.get();
+    }
+}
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS public.metadata_sync_state (
+    schema_name    VARCHAR(100) NOT NULL,
+    service_name   VARCHAR(255) NOT NULL,
+    object_type    VARCHAR(20) NOT NULL,
+    id             INT8 NOT NULL,
+    parent_fqn     TEXT NOT NULL,
+    fqn            TEXT NULL,
+    hash_data      TEXT NULL,
+    last_synced_at TIMESTAMP DEFAULT now() NOT NULL,
+    CONSTRAINT metadata_sync_state_pk
+        PRIMARY KEY (schema_name, service_name, object_type, id, parent_fqn)
+);
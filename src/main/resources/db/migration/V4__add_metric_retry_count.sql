@@ -0,0 +1,2 @@
+ALTER TABLE public.metadata_ingestion_metric
+    ADD COLUMN IF NOT EXISTS retry_count INT8 NULL;
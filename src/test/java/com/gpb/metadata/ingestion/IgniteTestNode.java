@@ -0,0 +1,62 @@
+package com.gpb.metadata.ingestion;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.Ignition;
+import org.apache.ignite.configuration.DataRegionConfiguration;
+import org.apache.ignite.configuration.DataStorageConfiguration;
+import org.apache.ignite.configuration.IgniteConfiguration;
+import org.apache.ignite.spi.discovery.tcp.TcpDiscoverySpi;
+import org.apache.ignite.spi.discovery.tcp.ipfinder.vm.TcpDiscoveryVmIpFinder;
+
+import com.gpb.metadata.ingestion.config.IgniteConfig;
+
+/**
+ * Однонодовый Ignite для тестов: регионы с теми же именами, что в
+ * {@link IgniteConfig}, но без persistence, discovery только на 127.0.0.1
+ */
+public final class IgniteTestNode {
+    private static final long REGION_SIZE = 64L * 1024 * 1024;
+
+    private IgniteTestNode() {
+    }
+
+    public static Ignite start(String name) {
+        IgniteConfiguration cfg = new IgniteConfiguration();
+        cfg.setIgniteInstanceName(name);
+        cfg.setLocalHost("127.0.0.1");
+        cfg.setMetricsLogFrequency(0);
+        try {
+            cfg.setWorkDirectory(Files.createTempDirectory("ignite-" + name).toString());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        DataStorageConfiguration storage = new DataStorageConfiguration();
+        storage.setDefaultDataRegionConfiguration(region(IgniteConfig.PERSISTENT_REGION));
+        storage.setDataRegionConfigurations(
+                region(IgniteConfig.VOLATILE_REGION),
+                region(IgniteConfig.TEMP_REGION)
+        );
+        cfg.setDataStorageConfiguration(storage);
+
+        TcpDiscoveryVmIpFinder ipFinder = new TcpDiscoveryVmIpFinder();
+        ipFinder.setAddresses(List.of("127.0.0.1:47500..47509"));
+        TcpDiscoverySpi discovery = new TcpDiscoverySpi();
+        discovery.setIpFinder(ipFinder);
+        cfg.setDiscoverySpi(discovery);
+
+        return Ignition.start(cfg);
+    }
+
+    private static DataRegionConfiguration region(String name) {
+        return new DataRegionConfiguration()
+                .setName(name)
+                .setInitialSize(REGION_SIZE)
+                .setMaxSize(REGION_SIZE);
+    }
+}
@@ -0,0 +1,111 @@
+package com.gpb.metadata.ingestion.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Замер сверки: последовательный проход против партиций на diffPool
+ * (metadata.sync.parallelism). Время зависит от машины, поэтому тест
+ * выполняется только с -Dbenchmark=true:
+ *
+ *   mvn test -Dtest=FingerprintDiffBenchmarkTest -Dbenchmark=true \
+ *       [-Dbenchmark.keys=1000000] [-Dbenchmark.maxParallelism=32] [-Dbenchmark.chunk=5000]
+ *
+ * Печатает медиану по прогонам для каждого parallelism. Ускорение
+ * проверяется, только если ядер не меньше 4.
+ */
+@Slf4j
+class FingerprintDiffBenchmarkTest {
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 7;
+
+    @Test
+    void partitionedDiffScalesWithCores() {
+        assumeTrue(Boolean.getBoolean("benchmark"), "benchmark is disabled, run with -Dbenchmark=true");
+
+        int keys = Integer.getInteger("benchmark.keys", 500_000);
+        int cores = Runtime.getRuntime().availableProcessors();
+        FingerprintDiffTest.Scenario scenario = FingerprintDiffTest.Scenario.random(keys, Math.max(100, keys / 200), 1);
+        FingerprintDiff expected = scenario.singlePass();
+
+        long singlePass = median(() -> {
+            FingerprintDiff diff = scenario.singlePass();
+            return diff.getNewKeys().size();
+        });
+        log.info("FingerprintDiff benchmark: keys={}, cores={}", keys, cores);
+        log.info("  single pass          : {} ms", singlePass / 1_000_000);
+
+        long best = Long.MAX_VALUE;
+        int maxParallelism = Integer.getInteger("benchmark.maxParallelism", cores);
+        for (int parallelism = 1; parallelism <= maxParallelism; parallelism *= 2) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                FingerprintDiff actual = partitioned(scenario, pool);
+                assertEquals(expected.getNewKeys(), actual.getNewKeys());
+                assertEquals(expected.getModifiedKeys(), actual.getModifiedKeys());
+                assertEquals(expected.getDeletedKeys(), actual.getDeletedKeys());
+
+                long time = median(() -> partitioned(scenario, pool).getNewKeys().size());
+                best = Math.min(best, time);
+                log.info("  partitioned, p={}{}: {} ms ({}x)", parallelism, parallelism < 10 ? " " : "",
+                        time / 1_000_000, String.format("%.2f", (double) singlePass / time));
+            } finally {
+                pool.shutdown();
+            }
+        }
+
+        if (cores >= 4) {
+            assertTrue(best < singlePass, "partitioned diff is not faster than a single pass on " + cores + " cores");
+        }
+    }
+
+    /**
+     * Как в compareCaches: при parallelism=1 обычный проход, иначе
+     * fingerprint'ы БД передаются пачками по fetch-size (benchmark.chunk)
+     */
+    private static FingerprintDiff partitioned(FingerprintDiffTest.Scenario scenario, ForkJoinPool pool) {
+        if (pool.getParallelism() == 1) {
+            return scenario.singlePass();
+        }
+        FingerprintDiff.Partitioned partitioned = FingerprintDiff.partitioned(new HashMap<>(scenario.runtime()), pool);
+        Map<EntityId, EntityFingerprint> chunk = new HashMap<>();
+        scenario.database().forEach((key, fingerprint) -> {
+            chunk.put(key, fingerprint);
+            if (chunk.size() >= Integer.getInteger("benchmark.chunk", 5000)) {
+                partitioned.acceptAll(chunk);
+                chunk.clear();
+            }
+        });
+        partitioned.acceptAll(chunk);
+        return partitioned.merge();
+    }
+
+    private static long median(Supplier<Integer> run) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run.get();
+        }
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            run.get();
+            times.add(System.nanoTime() - start);
+        }
+        times.sort(null);
+        return times.get(times.size() / 2);
+    }
+}
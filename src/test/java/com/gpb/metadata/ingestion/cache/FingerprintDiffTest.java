@@ -0,0 +1,177 @@
+package com.gpb.metadata.ingestion.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.jupiter.api.Test;
+
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+
+class FingerprintDiffTest {
+
+    @Test
+    void classifiesKeysInOnePass() {
+        Map<EntityId, String> runtime = new HashMap<>(Map.of(
+                key(1, "db.a"), "h1",
+                key(2, "db.a"), "h2",
+                key(3, "db.b"), "h3"
+        ));
+        FingerprintDiff diff = new FingerprintDiff(runtime);
+
+        diff.accept(key(1, "db.a"), fingerprint("h1"));
+        diff.accept(key(2, "db.a"), fingerprint("h2-changed"));
+        diff.accept(key(4, "db.b"), fingerprint("h4"));
+
+        assertEquals(Set.of(key(4, "db.b")), diff.getNewKeys());
+        assertEquals(Set.of(key(2, "db.a")), diff.getModifiedKeys());
+        assertEquals(Set.of(key(3, "db.b")), diff.getDeletedKeys());
+    }
+
+    @Test
+    void sameIdUnderAnotherParentIsAnotherEntity() {
+        FingerprintDiff diff = new FingerprintDiff(new HashMap<>(Map.of(key(1, "db.a"), "h1")));
+
+        diff.accept(key(1, "db.b"), fingerprint("h1"));
+
+        assertEquals(Set.of(key(1, "db.b")), diff.getNewKeys());
+        assertEquals(Set.of(key(1, "db.a")), diff.getDeletedKeys());
+    }
+
+    @Test
+    void missingHashOnOneSideIsModification() {
+        FingerprintDiff diff = new FingerprintDiff(new HashMap<>(Map.of(key(1, "db.a"), "h1")));
+        Map<EntityId, String> withNull = new HashMap<>();
+        withNull.put(key(2, "db.a"), null);
+        FingerprintDiff nullRuntime = new FingerprintDiff(withNull);
+
+        diff.accept(key(1, "db.a"), fingerprint(null));
+        nullRuntime.accept(key(2, "db.a"), fingerprint(null));
+
+        assertEquals(Set.of(key(1, "db.a")), diff.getModifiedKeys());
+        assertEquals(Set.of(), nullRuntime.getModifiedKeys());
+        assertEquals(Set.of(), nullRuntime.getNewKeys());
+        assertEquals(Set.of(), nullRuntime.getDeletedKeys());
+    }
+
+    @Test
+    void emptySides() {
+        FingerprintDiff noRuntime = new FingerprintDiff(new HashMap<>());
+        noRuntime.accept(key(1, "db.a"), fingerprint("h1"));
+        FingerprintDiff noDatabase = new FingerprintDiff(new HashMap<>(Map.of(key(1, "db.a"), "h1")));
+
+        assertEquals(Set.of(key(1, "db.a")), noRuntime.getNewKeys());
+        assertEquals(Set.of(key(1, "db.a")), noDatabase.getDeletedKeys());
+    }
+
+    @Test
+    void partitionedMatchesSinglePass() {
+        Scenario scenario = Scenario.random(20_000, 200, 42);
+        FingerprintDiff expected = scenario.singlePass();
+
+        for (int parallelism : List.of(1, 3, 8)) {
+            ForkJoinPool pool = new ForkJoinPool(parallelism);
+            try {
+                FingerprintDiff actual = FingerprintDiff.partitioned(
+                        new HashMap<>(scenario.runtime), scenario.database, pool);
+                assertSameDiff(expected, actual);
+            } finally {
+                pool.shutdown();
+            }
+        }
+    }
+
+    /**
+     * Fingerprint'ы БД приходят пачками (как при чтении курсора): результат
+     * не зависит от размера пачки
+     */
+    @Test
+    void partitionedInChunksMatchesSinglePass() {
+        Scenario scenario = Scenario.random(5_000, 50, 7);
+        FingerprintDiff expected = scenario.singlePass();
+        ForkJoinPool pool = new ForkJoinPool(4);
+        try {
+            for (int chunkSize : List.of(1, 97, 5_000)) {
+                FingerprintDiff.Partitioned partitioned = FingerprintDiff.partitioned(new HashMap<>(scenario.runtime), pool);
+                Map<EntityId, EntityFingerprint> chunk = new HashMap<>();
+                scenario.database.forEach((key, fingerprint) -> {
+                    chunk.put(key, fingerprint);
+                    if (chunk.size() >= chunkSize) {
+                        partitioned.acceptAll(chunk);
+                        chunk.clear();
+                    }
+                });
+                partitioned.acceptAll(chunk);
+                assertSameDiff(expected, partitioned.merge());
+            }
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    @Test
+    void partitionKeepsParentTogether() {
+        for (int partitions : List.of(1, 4, 16)) {
+            int partition = FingerprintDiff.partitionOf(key(1, "db.a"), partitions);
+            for (long id = 2; id < 100; id++) {
+                assertEquals(partition, FingerprintDiff.partitionOf(key(id, "db.a"), partitions));
+            }
+        }
+    }
+
+    private static void assertSameDiff(FingerprintDiff expected, FingerprintDiff actual) {
+        assertEquals(expected.getNewKeys(), actual.getNewKeys());
+        assertEquals(expected.getModifiedKeys(), actual.getModifiedKeys());
+        assertEquals(expected.getDeletedKeys(), actual.getDeletedKeys());
+    }
+
+    private static EntityId key(long id, String parentFqn) {
+        return new EntityId(id, parentFqn);
+    }
+
+    private static EntityFingerprint fingerprint(String hash) {
+        return new EntityFingerprint(hash, null);
+    }
+
+    /**
+     * Runtime состояние и БД: примерно 5% новых, 5% изменённых,
+     * 5% удалённых, остальное без изменений
+     */
+    record Scenario(Map<EntityId, String> runtime, Map<EntityId, EntityFingerprint> database) {
+
+        static Scenario random(int size, int parents, long seed) {
+            Random random = new Random(seed);
+            Map<EntityId, String> runtime = new HashMap<>();
+            Map<EntityId, EntityFingerprint> database = new HashMap<>();
+            for (long id = 0; id < size; id++) {
+                EntityId key = new EntityId(id, "db.schema" + random.nextInt(parents));
+                String hash = "hash" + id;
+                int kind = random.nextInt(20);
+                if (kind == 0) {
+                    database.put(key, new EntityFingerprint(hash, null));
+                } else if (kind == 1) {
+                    runtime.put(key, hash);
+                } else if (kind == 2) {
+                    runtime.put(key, hash);
+                    database.put(key, new EntityFingerprint(hash + "'", null));
+                } else {
+                    runtime.put(key, hash);
+                    database.put(key, new EntityFingerprint(hash, null));
+                }
+            }
+            return new Scenario(runtime, database);
+        }
+
+        FingerprintDiff singlePass() {
+            FingerprintDiff diff = new FingerprintDiff(new HashMap<>(runtime));
+            database.forEach(diff::accept);
+            return diff;
+        }
+    }
+}
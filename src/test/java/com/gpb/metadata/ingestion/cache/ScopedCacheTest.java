@@ -0,0 +1,163 @@
+package com.gpb.metadata.ingestion.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import com.gpb.metadata.ingestion.IgniteTestNode;
+import com.gpb.metadata.ingestion.config.IgniteConfig;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+
+/**
+ * Отдельный кэш на scope и общий кэш (metadata.sync.shared-caches) дают
+ * одинаковые результаты операций {@link ScopedCache}
+ */
+class ScopedCacheTest {
+    private static Ignite ignite;
+
+    @BeforeAll
+    static void startIgnite() {
+        ignite = IgniteTestNode.start("scoped-cache");
+    }
+
+    @AfterAll
+    static void stopIgnite() {
+        ignite.close();
+    }
+
+    @ParameterizedTest(name = "shared={0}")
+    @ValueSource(booleans = {false, true})
+    void putOverwriteAndRemove(boolean shared) {
+        ScopedCache<EntityId, EntityFingerprint> cache = create(shared, "s1");
+
+        assertTrue(cache.isEmpty());
+        assertEquals(0, cache.size());
+
+        cache.putAll(Map.of(key(1), fingerprint("h1"), key(2), fingerprint("h2"), key(3), fingerprint("h3")));
+        cache.put(key(2), fingerprint("h2'"));
+        assertEquals(3, cache.size());
+        assertFalse(cache.isEmpty());
+        assertEquals(fingerprint("h2'"), cache.get(key(2)));
+
+        cache.removeAll(List.of(key(1), key(4)));
+        assertEquals(2, cache.size());
+        assertNull(cache.get(key(1)));
+        assertEquals(Map.of(key(2), fingerprint("h2'"), key(3), fingerprint("h3")),
+                cache.getAll(List.of(key(1), key(2), key(3))));
+        assertEquals(Map.of(key(2), fingerprint("h2'"), key(3), fingerprint("h3")), contents(cache));
+    }
+
+    @ParameterizedTest(name = "shared={0}")
+    @ValueSource(booleans = {false, true})
+    void clearEmptiesOnlyOwnScope(boolean shared) {
+        String prefix = prefix();
+        ScopedCache<EntityId, EntityFingerprint> first = factory(shared).getOrCreate(prefix, "s1", IgniteConfig.VOLATILE_REGION);
+        ScopedCache<EntityId, EntityFingerprint> second = factory(shared).getOrCreate(prefix, "s2", IgniteConfig.VOLATILE_REGION);
+        first.putAll(Map.of(key(1), fingerprint("h1"), key(2), fingerprint("h2")));
+        second.put(key(1), fingerprint("other"));
+
+        first.clear();
+
+        assertEquals(0, first.size());
+        assertTrue(first.isEmpty());
+        assertEquals(1, second.size());
+        assertEquals(fingerprint("other"), second.get(key(1)));
+
+        first.put(key(5), fingerprint("h5"));
+        assertEquals(1, first.size());
+    }
+
+    /**
+     * Узел упал между записью данных и завершением отметки: счётчику
+     * не доверяют, размер считается проходом и счётчик исправляется
+     */
+    @Test
+    void unfinishedWriteIsRecounted() {
+        String prefix = prefix();
+        ScopedCache<EntityId, EntityFingerprint> cache = factory(true).getOrCreate(prefix, "s1", IgniteConfig.VOLATILE_REGION);
+        cache.putAll(Map.of(key(1), fingerprint("h1"), key(2), fingerprint("h2")));
+        IgniteCache<String, SharedScopedCache.ScopeSize> sizes = ignite.cache(prefix + "shared_sizes");
+
+        sizes.put("s1", new SharedScopedCache.ScopeSize(7, 3, 2));
+        assertFalse(cache.isEmpty());
+        assertEquals(2, cache.size());
+        assertEquals(new SharedScopedCache.ScopeSize(2, 3, 3), sizes.get("s1"));
+
+        cache.put(key(3), fingerprint("h3"));
+        assertEquals(3, cache.size());
+    }
+
+    @Test
+    void missingCounterIsRecounted() {
+        String prefix = prefix();
+        ScopedCache<EntityId, EntityFingerprint> cache = factory(true).getOrCreate(prefix, "s1", IgniteConfig.VOLATILE_REGION);
+        cache.putAll(Map.of(key(1), fingerprint("h1"), key(2), fingerprint("h2")));
+        IgniteCache<String, SharedScopedCache.ScopeSize> sizes = ignite.cache(prefix + "shared_sizes");
+
+        sizes.remove("s1");
+        cache.put(key(3), fingerprint("h3"));
+
+        assertEquals(3, cache.size());
+        assertTrue(sizes.get("s1").isExact());
+    }
+
+    /**
+     * Переход на общий режим переносит содержимое отдельного кэша
+     */
+    @Test
+    void dedicatedContentMigratesToShared() {
+        String prefix = prefix();
+        factory(false).<EntityId, EntityFingerprint>getOrCreate(prefix, "s1", IgniteConfig.VOLATILE_REGION)
+                .putAll(Map.of(key(1), fingerprint("h1"), key(2), fingerprint("h2")));
+
+        ScopedCache<EntityId, EntityFingerprint> shared = factory(true).getOrCreate(prefix, "s1", IgniteConfig.VOLATILE_REGION);
+
+        assertEquals(2, shared.size());
+        assertEquals(Set.of(key(1), key(2)), contents(shared).keySet());
+        assertNull(ignite.cache(prefix + "s1"));
+    }
+
+    private static ScopedCache<EntityId, EntityFingerprint> create(boolean shared, String scope) {
+        return factory(shared).getOrCreate(prefix(), scope, IgniteConfig.VOLATILE_REGION);
+    }
+
+    private static ScopedCacheFactory factory(boolean shared) {
+        MetadataSyncProperties properties = new MetadataSyncProperties();
+        properties.setSharedCaches(shared);
+        return new ScopedCacheFactory(ignite, properties);
+    }
+
+    private static String prefix() {
+        return "test_" + System.nanoTime() + "_";
+    }
+
+    private static Map<EntityId, EntityFingerprint> contents(ScopedCache<EntityId, EntityFingerprint> cache) {
+        Map<EntityId, EntityFingerprint> result = new HashMap<>();
+        cache.forEach(result::put);
+        return result;
+    }
+
+    private static EntityId key(long id) {
+        return new EntityId(id, "db.public");
+    }
+
+    private static EntityFingerprint fingerprint(String hash) {
+        return new EntityFingerprint(hash, "db.public.t" + hash);
+    }
+}
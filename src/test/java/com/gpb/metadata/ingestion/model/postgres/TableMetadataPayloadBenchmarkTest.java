@@ -0,0 +1,118 @@
+package com.gpb.metadata.ingestion.model.postgres;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.gpb.metadata.ingestion.utils.JsonSupport;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Замер хранения data таблицы: разобранное дерево JsonNode против сжатого
+ * JSON (CompressedJson) с декодированием по запросу. Объём кучи и время
+ * зависят от машины, поэтому тест выполняется только с -Dbenchmark=true:
+ *
+ *   mvn test -Dtest=TableMetadataPayloadBenchmarkTest -Dbenchmark=true \
+ *       [-Dbenchmark.tables=10000] [-Dbenchmark.columns=120]
+ *
+ * Печатает размер JSON, сжатых байт, прирост кучи для обоих вариантов и
+ * время getTableData() на одну таблицу.
+ */
+@Slf4j
+class TableMetadataPayloadBenchmarkTest {
+
+    @Test
+    void compressedPayloadIsSmallerThanTree() throws Exception {
+        assumeTrue(Boolean.getBoolean("benchmark"), "benchmark is disabled, run with -Dbenchmark=true");
+
+        int tables = Integer.getInteger("benchmark.tables", 10_000);
+        int columns = Integer.getInteger("benchmark.columns", 120);
+        Random random = new Random(1);
+        List<String> payloads = new ArrayList<>(tables);
+        long jsonBytes = 0;
+        for (int i = 0; i < tables; i++) {
+            String json = tableJson(i, columns / 2 + random.nextInt(columns), random);
+            jsonBytes += json.length();
+            payloads.add(json);
+        }
+
+        long before = usedHeap();
+        List<JsonNode> trees = new ArrayList<>(tables);
+        for (String json : payloads) {
+            trees.add(JsonSupport.MAPPER.readTree(json));
+        }
+        long treeHeap = usedHeap() - before;
+        assertEquals(tables, trees.size());
+        trees = null;
+
+        before = usedHeap();
+        List<TableMetadata> compressed = new ArrayList<>(tables);
+        long compressedBytes = 0;
+        for (String json : payloads) {
+            TableMetadata table = new TableMetadata();
+            table.setDataJson(json);
+            compressedBytes += table.getCompressedData().length;
+            compressed.add(table);
+        }
+        long compressedHeap = usedHeap() - before;
+
+        long start = System.nanoTime();
+        int decodedColumns = 0;
+        for (TableMetadata table : compressed) {
+            decodedColumns += table.getTableData().getColumns().size();
+        }
+        long decode = System.nanoTime() - start;
+
+        log.info("TableMetadata payload benchmark: tables={}, columns~{}", tables, columns);
+        log.info("  JSON text        : {} KB", jsonBytes / 1024);
+        log.info("  compressed bytes : {} KB ({}x)", compressedBytes / 1024,
+                String.format("%.1f", (double) jsonBytes / compressedBytes));
+        log.info("  heap, JsonNode   : {} KB", treeHeap / 1024);
+        log.info("  heap, compressed : {} KB", compressedHeap / 1024);
+        log.info("  getTableData()   : {} us per table ({} columns)", decode / 1000 / tables, decodedColumns);
+
+        assertTrue(compressedBytes < jsonBytes, "compressed payload is not smaller than JSON");
+    }
+
+    /**
+     * data таблицы в формате OpenMetadata: тип, ограничения и колонки
+     * с повторяющимися типами и описаниями, как в реальных схемах
+     */
+    private static String tableJson(int table, int columns, Random random) {
+        String[] types = {"VARCHAR", "BIGINT", "NUMERIC", "TIMESTAMP", "BOOLEAN", "TEXT"};
+        StringBuilder json = new StringBuilder()
+                .append("{\"tableType\":\"Regular\",\"tableConstraints\":[{\"constraintType\":\"PRIMARY_KEY\",")
+                .append("\"columns\":[\"id\"]}],\"columns\":[");
+        for (int c = 0; c < columns; c++) {
+            String type = types[random.nextInt(types.length)];
+            if (c > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"column_").append(c)
+                    .append("\",\"dataType\":\"").append(type)
+                    .append("\",\"dataTypeDisplay\":\"").append(type.toLowerCase())
+                    .append("\",\"dataLength\":\"").append(random.nextInt(256))
+                    .append("\",\"description\":\"Атрибут ").append(c).append(" таблицы t").append(table)
+                    .append("\",\"ordinalPosition\":\"").append(c + 1)
+                    .append("\",\"constraint\":\"").append(c == 0 ? "PRIMARY_KEY" : "NULL")
+                    .append("\"}");
+        }
+        return json.append("]}").toString();
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,140 @@
+package com.gpb.metadata.ingestion.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+
+import org.apache.ignite.Ignite;
+import org.apache.ignite.IgniteCache;
+import org.apache.ignite.binary.BinaryObject;
+import org.apache.ignite.cache.query.QueryCursor;
+import org.apache.ignite.cache.query.ScanQuery;
+import org.apache.ignite.configuration.CacheConfiguration;
+import org.junit.jupiter.api.Test;
+
+import com.gpb.metadata.ingestion.IgniteTestNode;
+import com.gpb.metadata.ingestion.config.IgniteConfig;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.model.postgres.TableMetadata;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Замер прохода по кэшу TableMetadata (как при миграции legacy кэша):
+ * десериализация значений против чтения полей hashData/fqn из BinaryObject
+ * (withKeepBinary). Время зависит от машины, поэтому тест выполняется
+ * только с -Dbenchmark=true:
+ *
+ *   mvn test -Dtest=BinaryScanBenchmarkTest -Dbenchmark=true \
+ *       [-Dbenchmark.tables=5000] [-Dbenchmark.columns=60]
+ *
+ * Печатает медиану по прогонам для обоих вариантов.
+ */
+@Slf4j
+class BinaryScanBenchmarkTest {
+    private static final int WARMUP_RUNS = 3;
+    private static final int MEASURED_RUNS = 7;
+
+    @Test
+    void keepBinaryScanSkipsDeserialization() {
+        assumeTrue(Boolean.getBoolean("benchmark"), "benchmark is disabled, run with -Dbenchmark=true");
+
+        int tables = Integer.getInteger("benchmark.tables", 5_000);
+        int columns = Integer.getInteger("benchmark.columns", 60);
+
+        try (Ignite ignite = IgniteTestNode.start("binary-scan-benchmark")) {
+            IgniteCache<EntityId, TableMetadata> cache = ignite.getOrCreateCache(
+                    new CacheConfiguration<EntityId, TableMetadata>("benchmark_TABLE")
+                            .setDataRegionName(IgniteConfig.VOLATILE_REGION));
+            Map<EntityId, TableMetadata> batch = new HashMap<>();
+            for (int i = 0; i < tables; i++) {
+                TableMetadata table = table(i, columns);
+                batch.put(table.getId(), table);
+                if (batch.size() == 500) {
+                    cache.putAll(batch);
+                    batch.clear();
+                }
+            }
+            cache.putAll(batch);
+
+            Map<EntityId, EntityFingerprint> expected = deserializing(cache);
+            assertEquals(tables, expected.size());
+            assertEquals(expected, binary(cache));
+
+            long deserializing = median(() -> deserializing(cache).size());
+            long binary = median(() -> binary(cache).size());
+
+            log.info("Binary scan benchmark: tables={}, columns={}", tables, columns);
+            log.info("  deserializing scan : {} ms", deserializing / 1_000_000);
+            log.info("  keep-binary scan   : {} ms ({}x)", binary / 1_000_000,
+                    String.format("%.2f", (double) deserializing / binary));
+        }
+    }
+
+    private static Map<EntityId, EntityFingerprint> deserializing(IgniteCache<EntityId, TableMetadata> cache) {
+        Map<EntityId, EntityFingerprint> result = new HashMap<>();
+        try (QueryCursor<Map.Entry<EntityId, EntityFingerprint>> cursor = cache.query(
+                new ScanQuery<EntityId, TableMetadata>(),
+                entry -> new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), EntityFingerprint.of(entry.getValue()))
+        )) {
+            cursor.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    private static Map<EntityId, EntityFingerprint> binary(IgniteCache<EntityId, TableMetadata> cache) {
+        IgniteCache<BinaryObject, BinaryObject> binary = cache.withKeepBinary();
+        Map<EntityId, EntityFingerprint> result = new HashMap<>();
+        try (QueryCursor<Map.Entry<EntityId, EntityFingerprint>> cursor = binary.query(
+                new ScanQuery<BinaryObject, BinaryObject>(),
+                entry -> new AbstractMap.SimpleImmutableEntry<>(
+                        AbstractMetadataCacheService.toEntityId(entry.getKey()),
+                        AbstractMetadataCacheService.toFingerprint(entry.getValue()))
+        )) {
+            cursor.forEach(entry -> result.put(entry.getKey(), entry.getValue()));
+        }
+        return result;
+    }
+
+    private static TableMetadata table(int id, int columns) {
+        StringBuilder json = new StringBuilder("{\"tableType\":\"Regular\",\"columns\":[");
+        for (int c = 0; c < columns; c++) {
+            if (c > 0) {
+                json.append(',');
+            }
+            json.append("{\"name\":\"column_").append(c)
+                    .append("\",\"dataType\":\"VARCHAR\",\"dataLength\":\"").append(c % 256)
+                    .append("\",\"description\":\"Атрибут ").append(c).append(" таблицы t").append(id)
+                    .append("\",\"ordinalPosition\":\"").append(c + 1).append("\"}");
+        }
+        TableMetadata table = new TableMetadata();
+        table.setId(new EntityId((long) id, "db.schema" + id % 50));
+        table.setName("t" + id);
+        table.setFqn("svc.db.schema" + id % 50 + ".t" + id);
+        table.setServiceName("svc");
+        table.setHashData("hash" + id);
+        table.setDataJson(json.append("]}").toString());
+        return table;
+    }
+
+    private static long median(Supplier<Integer> run) {
+        for (int i = 0; i < WARMUP_RUNS; i++) {
+            run.get();
+        }
+        List<Long> times = new ArrayList<>();
+        for (int i = 0; i < MEASURED_RUNS; i++) {
+            long start = System.nanoTime();
+            run.get();
+            times.add(System.nanoTime() - start);
+        }
+        times.sort(null);
+        return times.get(times.size() / 2);
+    }
+}
@@ -0,0 +1,144 @@
+package com.gpb.metadata.ingestion.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+
+import org.apache.ignite.Ignite;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gpb.metadata.ingestion.IgniteTestNode;
+import com.gpb.metadata.ingestion.cache.CacheComparisonResult;
+import com.gpb.metadata.ingestion.cache.ScopedCacheFactory;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.model.RetryEntry;
+import com.gpb.metadata.ingestion.model.postgres.SchemaMetadata;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+import com.gpb.metadata.ingestion.repository.SchemaMetadataCacheRepository;
+import com.gpb.metadata.ingestion.repository.SyncStateRepository;
+import com.gpb.metadata.ingestion.service.impl.SchemaMetadataCacheServiceImpl;
+
+/**
+ * Удаления при инкрементальной сверке определяются по числу строк
+ * ({@link AbstractMetadataCacheService#compareIncremental})
+ */
+class IncrementalComparisonTest {
+    private static final String SCHEMA = "public";
+    private static final LocalDateTime SINCE = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime UP_TO = SINCE.plusHours(1);
+
+    private static Ignite ignite;
+    private static ForkJoinPool diffPool;
+
+    private SchemaMetadataCacheRepository repository;
+    private SchemaMetadataCacheServiceImpl service;
+    private String serviceName;
+
+    @BeforeAll
+    static void startIgnite() {
+        ignite = IgniteTestNode.start("incremental-comparison");
+        diffPool = new ForkJoinPool(2);
+    }
+
+    @AfterAll
+    static void stopIgnite() {
+        diffPool.shutdown();
+        ignite.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        MetadataSyncProperties properties = new MetadataSyncProperties();
+        repository = mock(SchemaMetadataCacheRepository.class);
+        when(repository.findChangedSince(anyString(), anyString(), anyString(), any(), any())).thenReturn(Map.of());
+        service = new SchemaMetadataCacheServiceImpl(ignite, repository, properties,
+                mock(SyncStateRepository.class), diffPool, new ScopedCacheFactory(ignite, properties));
+        serviceName = "svc" + System.nanoTime();
+
+        service.getOrCreateRuntimeCache(SCHEMA, serviceName).putAll(Map.of(
+                key(1), fingerprint(1),
+                key(2), fingerprint(2),
+                key(3), fingerprint(3)
+        ));
+    }
+
+    @Test
+    void unchangedCountSkipsKeySet() {
+        when(repository.countByServiceName(SCHEMA, serviceName)).thenReturn(3L);
+
+        CacheComparisonResult<SchemaMetadata> result = service.compareIncremental(SCHEMA, serviceName, SINCE, UP_TO);
+
+        assertTrue(result.getDeletedRecords().isEmpty());
+        verify(repository, never()).findKeysByServiceName(anyString(), anyString());
+    }
+
+    /**
+     * Строка 4 отклонена ОРД на прошлом запуске: она есть в БД и в журнале
+     * повторов, но не в runtime состоянии. Одновременно удалена строка 3:
+     * число строк (3) совпало бы с runtime (3), удаление нашлось бы только
+     * при полной сверке
+     */
+    @Test
+    void rejectedRowDoesNotHideConcurrentDelete() {
+        RetryEntry rejected = new RetryEntry();
+        rejected.setLastError("HTTP 400");
+        service.getRetryCache(SCHEMA, serviceName).put(key(4), rejected);
+        when(repository.countByServiceName(SCHEMA, serviceName)).thenReturn(3L);
+        when(repository.findKeysByServiceName(SCHEMA, serviceName)).thenReturn(Set.of(key(1), key(2), key(4)));
+
+        CacheComparisonResult<SchemaMetadata> result = service.compareIncremental(SCHEMA, serviceName, SINCE, UP_TO);
+
+        assertEquals(Set.of(key(3)), result.getDeletedRecords().keySet());
+    }
+
+    @Test
+    void rejectedRowWithoutDeletesSkipsKeySet() {
+        service.getRetryCache(SCHEMA, serviceName).put(key(4), new RetryEntry());
+        when(repository.countByServiceName(SCHEMA, serviceName)).thenReturn(4L);
+
+        CacheComparisonResult<SchemaMetadata> result = service.compareIncremental(SCHEMA, serviceName, SINCE, UP_TO);
+
+        assertTrue(result.getDeletedRecords().isEmpty());
+        verify(repository, never()).findKeysByServiceName(anyString(), anyString());
+    }
+
+    /**
+     * DELETE строки 3 не подтверждён: она ещё в runtime, строки в БД нет.
+     * Одновременно удалена строка 2
+     */
+    @Test
+    void pendingDeleteDoesNotHideConcurrentDelete() {
+        RetryEntry pendingDelete = new RetryEntry();
+        pendingDelete.setDeleted(true);
+        pendingDelete.setFingerprint(fingerprint(3));
+        service.getRetryCache(SCHEMA, serviceName).put(key(3), pendingDelete);
+        when(repository.countByServiceName(SCHEMA, serviceName)).thenReturn(1L);
+        when(repository.findKeysByServiceName(SCHEMA, serviceName)).thenReturn(Set.of(key(1)));
+
+        CacheComparisonResult<SchemaMetadata> result = service.compareIncremental(SCHEMA, serviceName, SINCE, UP_TO);
+
+        assertEquals(Set.of(key(2), key(3)), result.getDeletedRecords().keySet());
+    }
+
+    private static EntityId key(long id) {
+        return new EntityId(id, "db.public");
+    }
+
+    private static EntityFingerprint fingerprint(long id) {
+        return new EntityFingerprint("hash" + id, "db.public.t" + id);
+    }
+}
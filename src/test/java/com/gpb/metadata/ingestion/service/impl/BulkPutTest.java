@@ -0,0 +1,215 @@
+package com.gpb.metadata.ingestion.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gpb.metadata.ingestion.cache.SyncOutcome;
+import com.gpb.metadata.ingestion.config.KeycloakConfig;
+import com.gpb.metadata.ingestion.log.SvoiCustomLogger;
+import com.gpb.metadata.ingestion.metrics.MetricCounter;
+import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.model.postgres.SchemaMetadata;
+import com.gpb.metadata.ingestion.properties.WebClientProperties;
+import com.gpb.metadata.ingestion.service.OrdaTokenProvider;
+import com.gpb.metadata.ingestion.utils.OrdaClient;
+import com.gpb.metadata.ingestion.utils.OrdaConcurrencyLimiter;
+import com.gpb.metadata.ingestion.utils.OrdaConcurrencyLimiter.EndpointClass;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Пакетный PUT ({@link MetadataHandlerServiceImpl#putInBatches}) против
+ * OrdaClient с подменённым HTTP обменом: на bulk endpoint отвечает bulkResponse
+ */
+class BulkPutTest {
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+    private static final String ENDPOINT = "/databaseSchemas";
+
+    private final WebClientProperties properties = new WebClientProperties();
+    private final ConcurrentLinkedQueue<String> requests = new ConcurrentLinkedQueue<>();
+    private volatile ClientResponse bulkResponse;
+
+    private MetadataHandlerServiceImpl handler;
+    private MetricCounter metric;
+    private SyncOutcome<SchemaMetadata> outcome;
+
+    private final List<Long> singles = Collections.synchronizedList(new ArrayList<>());
+    private final AtomicInteger singlesInFlight = new AtomicInteger();
+    private final AtomicInteger maxSinglesInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        properties.getBulk().setEnabled(true);
+        properties.getBulk().setBatchSize(10);
+        properties.getRetry().setEnabled(false);
+
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.add(request.method() + " " + request.url().getPath());
+                    return Mono.just(request.method() == HttpMethod.PUT
+                            && request.url().getPath().endsWith(properties.getBulk().getSuffix())
+                            ? bulkResponse
+                            : ClientResponse.create(HttpStatus.OK).build());
+                })
+                .build();
+        OrdaTokenProvider tokenProvider = mock(OrdaTokenProvider.class);
+        when(tokenProvider.getToken()).thenReturn("token");
+        OrdaClient ordaClient = new OrdaClient(mock(SvoiCustomLogger.class), webClient, properties,
+                new KeycloakConfig(), tokenProvider, new ObjectMapper());
+        OrdaConcurrencyLimiter limiter = new OrdaConcurrencyLimiter(properties, 4, new SimpleMeterRegistry());
+
+        handler = new MetadataHandlerServiceImpl(null, null, null, null, properties, null,
+                ordaClient, limiter, null, null, null);
+        metric = new MetricCounter();
+        outcome = new SyncOutcome<>();
+    }
+
+    @Test
+    void acceptedBatchSkipsSinglePuts() {
+        bulkResponse = json("{\"status\":\"success\",\"numberOfRowsProcessed\":5,\"numberOfRowsFailed\":0}");
+
+        int errors = put(schemas(5));
+
+        assertEquals(0, errors);
+        assertEquals(List.of("PUT " + ENDPOINT + "/bulk"), List.copyOf(requests));
+        assertTrue(singles.isEmpty());
+        assertEquals(5, outcome.getAccepted().size());
+        assertEquals(5, metric.getSuccessCount());
+    }
+
+    /**
+     * ОРД принял пачку частично (numberOfRowsFailed > 0): каждая сущность
+     * пачки повторяется поштучно, по одной за раз
+     */
+    @Test
+    void partiallyFailedBatchFallsBackToSequentialSinglePuts() {
+        bulkResponse = json("{\"status\":\"partialSuccess\",\"numberOfRowsProcessed\":5,\"numberOfRowsFailed\":2}");
+
+        int errors = put(schemas(5));
+
+        assertEquals(0, errors);
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L), singles);
+        assertEquals(1, maxSinglesInFlight.get());
+        assertEquals(5, outcome.getAccepted().size());
+        assertTrue(outcome.getFailed().isEmpty());
+    }
+
+    @Test
+    void rejectedBatchFallsBackToSinglePuts() {
+        bulkResponse = ClientResponse.create(HttpStatus.BAD_REQUEST).body("invalid entity").build();
+
+        put(schemas(3));
+
+        assertEquals(List.of(1L, 2L, 3L), singles);
+        assertEquals(3, outcome.getAccepted().size());
+    }
+
+    /**
+     * Перегрузка ОРД: поштучный повтор не выполняется, сущности пачки
+     * отмечаются ошибкой и остаются в журнале повторов
+     */
+    @Test
+    void overloadedBatchSkipsFallback() {
+        bulkResponse = ClientResponse.create(HttpStatus.SERVICE_UNAVAILABLE).body("busy").build();
+
+        int errors = put(schemas(4));
+
+        assertEquals(4, errors);
+        assertTrue(singles.isEmpty());
+        assertEquals(4, outcome.getFailed().size());
+        assertTrue(outcome.getAccepted().isEmpty());
+        assertEquals(4, metric.getErrorCount());
+    }
+
+    @Test
+    void entitiesWithoutDtoGoToSinglePut() {
+        bulkResponse = json("{\"status\":\"success\",\"numberOfRowsFailed\":0}");
+        List<SchemaMetadata> values = schemas(3);
+
+        int errors = handler.putInBatches(Flux.fromIterable(values), ENDPOINT,
+                        EndpointClass.SCHEMA, true,
+                        value -> value.getId().getId() == 2 ? null : Map.of("name", value.getName()),
+                        this::single, metric, outcome)
+                .reduce(0, Integer::sum)
+                .block(TIMEOUT);
+
+        assertEquals(1, errors);
+        assertEquals(List.of(2L), singles);
+        assertEquals(2, outcome.getAccepted().size());
+        assertEquals(1, outcome.getFailed().size());
+    }
+
+    private int put(List<SchemaMetadata> values) {
+        return handler.putInBatches(Flux.fromIterable(values), ENDPOINT,
+                        EndpointClass.SCHEMA, true, value -> Map.of("name", value.getName()),
+                        this::single, metric, outcome)
+                .reduce(0, Integer::sum)
+                .block(TIMEOUT);
+    }
+
+    /**
+     * Поштучный PUT: без DTO — ошибка, иначе успех после короткой задержки,
+     * чтобы пересечение запросов было видно
+     */
+    private Mono<Integer> single(SchemaMetadata value, Object dto) {
+        if (dto == null) {
+            metric.error();
+            outcome.failed(value, "DTO is not built");
+            singles.add(value.getId().getId());
+            return Mono.just(1);
+        }
+        return Mono.defer(() -> {
+                    maxSinglesInFlight.accumulateAndGet(singlesInFlight.incrementAndGet(), Math::max);
+                    singles.add(value.getId().getId());
+                    return Mono.delay(Duration.ofMillis(5));
+                })
+                .then(Mono.fromCallable(() -> {
+                    // До ответа: следующий запрос concatMap подписывается сразу после него
+                    singlesInFlight.decrementAndGet();
+                    metric.success();
+                    outcome.accepted(value);
+                    return 0;
+                }));
+    }
+
+    private static List<SchemaMetadata> schemas(int count) {
+        return IntStream.rangeClosed(1, count)
+                .mapToObj(id -> {
+                    SchemaMetadata schema = new SchemaMetadata();
+                    schema.setId(new EntityId(id, "service.db"));
+                    schema.setName("schema" + id);
+                    return schema;
+                })
+                .toList();
+    }
+
+    private static ClientResponse json(String body) {
+        return ClientResponse.create(HttpStatus.OK)
+                .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON_VALUE)
+                .body(body)
+                .build();
+    }
+}
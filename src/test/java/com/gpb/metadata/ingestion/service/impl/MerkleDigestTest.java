@@ -0,0 +1,166 @@
+package com.gpb.metadata.ingestion.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiConsumer;
+
+import org.apache.ignite.Ignite;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import com.gpb.metadata.ingestion.IgniteTestNode;
+import com.gpb.metadata.ingestion.cache.CacheComparisonResult;
+import com.gpb.metadata.ingestion.cache.ScopedCache;
+import com.gpb.metadata.ingestion.cache.ScopedCacheFactory;
+import com.gpb.metadata.ingestion.cache.SyncOutcome;
+import com.gpb.metadata.ingestion.config.IgniteConfig;
+import com.gpb.metadata.ingestion.model.EntityFingerprint;
+import com.gpb.metadata.ingestion.model.EntityId;
+import com.gpb.metadata.ingestion.model.SchemaDigest;
+import com.gpb.metadata.ingestion.model.postgres.TableMetadata;
+import com.gpb.metadata.ingestion.properties.MetadataSyncProperties;
+import com.gpb.metadata.ingestion.repository.SyncStateRepository;
+import com.gpb.metadata.ingestion.repository.TableMetadataCacheRepository;
+
+/**
+ * Дайджесты схем сохраняются сразу после сверки, до подтверждения ОРД:
+ * схема с изменениями остаётся без дайджеста, пока изменения не зафиксированы
+ */
+class MerkleDigestTest {
+    private static final String SCHEMA = "public";
+    private static final String SCHEMA_A = "db.a";
+    private static final String SCHEMA_B = "db.b";
+
+    private static Ignite ignite;
+    private static ForkJoinPool diffPool;
+
+    private final Map<EntityId, EntityFingerprint> database = new HashMap<>();
+    private TableMetadataCacheRepository repository;
+    private TableMetadataCacheServiceImpl service;
+    private ScopedCacheFactory cacheFactory;
+    private String serviceName;
+
+    @BeforeAll
+    static void startIgnite() {
+        ignite = IgniteTestNode.start("merkle-digest");
+        diffPool = new ForkJoinPool(2);
+    }
+
+    @AfterAll
+    static void stopIgnite() {
+        diffPool.shutdown();
+        ignite.close();
+    }
+
+    @BeforeEach
+    void setUp() {
+        MetadataSyncProperties properties = new MetadataSyncProperties();
+        properties.getMerkle().setEnabled(true);
+        repository = mock(TableMetadataCacheRepository.class);
+        cacheFactory = new ScopedCacheFactory(ignite, properties);
+        service = new TableMetadataCacheServiceImpl(ignite, repository, properties,
+                mock(SyncStateRepository.class), diffPool, cacheFactory);
+        serviceName = "svc" + System.nanoTime();
+
+        doAnswer(invocation -> {
+            BiConsumer<EntityId, EntityFingerprint> consumer = invocation.getArgument(2);
+            database.forEach(consumer);
+            return null;
+        }).when(repository).streamFingerprintsByServiceName(eq(SCHEMA), eq(serviceName), any());
+        when(repository.findByIds(eq(SCHEMA), eq(serviceName), anyCollection())).thenAnswer(invocation -> {
+            Collection<EntityId> ids = invocation.getArgument(2);
+            return ids.stream().filter(database::containsKey).map(this::table).toList();
+        });
+        when(repository.findFingerprintsByParents(eq(SCHEMA), eq(serviceName), anyCollection())).thenAnswer(invocation -> {
+            Collection<String> parents = invocation.getArgument(2);
+            Map<EntityId, EntityFingerprint> result = new HashMap<>();
+            database.forEach((key, fingerprint) -> {
+                if (parents.contains(key.getParentFqn())) {
+                    result.put(key, fingerprint);
+                }
+            });
+            return result;
+        });
+        when(repository.findSchemaDigests(SCHEMA, serviceName)).thenAnswer(invocation -> Map.of(
+                SCHEMA_A, new SchemaDigest("db", "digest-a"),
+                SCHEMA_B, new SchemaDigest("db", "digest-b-" + database.get(key(2, SCHEMA_B)).getHashData())));
+
+        database.put(key(1, SCHEMA_A), fingerprint("h1"));
+        database.put(key(2, SCHEMA_B), fingerprint("h2"));
+        SyncOutcome<TableMetadata> synced = new SyncOutcome<>();
+        database.keySet().forEach(key -> synced.accepted(table(key)));
+        service.commit(SCHEMA, serviceName, synced);
+    }
+
+    @Test
+    void changedSchemaGetsDigestOnlyAfterCommit() {
+        database.put(key(2, SCHEMA_B), fingerprint("h2'"));
+
+        CacheComparisonResult<TableMetadata> first = service.synchronizeWithDatabase(SCHEMA, serviceName);
+
+        assertEquals(Set.of(key(2, SCHEMA_B)), first.getPutRecords().keySet());
+        assertEquals(Set.of(SCHEMA_A), digests().keySet());
+
+        SyncOutcome<TableMetadata> outcome = new SyncOutcome<>();
+        outcome.accepted(first.getPutRecords().get(key(2, SCHEMA_B)));
+        service.commit(SCHEMA, serviceName, outcome);
+
+        CacheComparisonResult<TableMetadata> second = service.synchronizeWithDatabase(SCHEMA, serviceName);
+
+        assertTrue(second.getPutRecords().isEmpty());
+        assertEquals(Set.of(SCHEMA_A, SCHEMA_B), digests().keySet());
+    }
+
+    /**
+     * ОРД изменение не подтвердил: следующая сверка снова спускается в схему
+     */
+    @Test
+    void unconfirmedSchemaIsComparedAgain() {
+        database.put(key(2, SCHEMA_B), fingerprint("h2'"));
+
+        service.synchronizeWithDatabase(SCHEMA, serviceName);
+        CacheComparisonResult<TableMetadata> second = service.synchronizeWithDatabase(SCHEMA, serviceName);
+
+        assertEquals(Set.of(key(2, SCHEMA_B)), second.getPutRecords().keySet());
+        assertEquals(Set.of(SCHEMA_A), digests().keySet());
+    }
+
+    private Map<String, SchemaDigest> digests() {
+        ScopedCache<String, SchemaDigest> cache = cacheFactory.getOrCreate(
+                "runtime_TABLE_DIGEST_", SCHEMA + "_" + serviceName, IgniteConfig.VOLATILE_REGION);
+        Map<String, SchemaDigest> result = new HashMap<>();
+        cache.forEach(result::put);
+        return result;
+    }
+
+    private TableMetadata table(EntityId id) {
+        TableMetadata table = new TableMetadata();
+        table.setId(id);
+        table.setFqn(database.get(id).getFqn());
+        table.setHashData(database.get(id).getHashData());
+        table.setServiceName(serviceName);
+        return table;
+    }
+
+    private static EntityId key(long id, String parentFqn) {
+        return new EntityId(id, parentFqn);
+    }
+
+    private static EntityFingerprint fingerprint(String hash) {
+        return new EntityFingerprint(hash, "db.t" + hash);
+    }
+}
@@ -0,0 +1,199 @@
+package com.gpb.metadata.ingestion.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+
+import org.junit.jupiter.api.Test;
+
+import reactor.core.Disposable;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+
+class AimdLimiterTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private static AimdLimiter limiter(int initialLimit) {
+        return new AimdLimiter(initialLimit, 1, 64, 0.5, 100.0, error -> error instanceof IllegalStateException);
+    }
+
+    @Test
+    void healthyResponsesIncreaseLimit() {
+        AimdLimiter limiter = limiter(2);
+
+        for (int i = 0; i < 10; i++) {
+            limiter.run(Mono.just(i)).block(TIMEOUT);
+        }
+
+        assertTrue(limiter.getLimit() > 2);
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void overloadDecreasesLimit() {
+        AimdLimiter limiter = limiter(8);
+
+        limiter.run(Mono.error(new IllegalStateException("503")))
+                .onErrorResume(error -> Mono.empty())
+                .block(TIMEOUT);
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void otherErrorsKeepLimit() {
+        AimdLimiter limiter = limiter(8);
+
+        limiter.run(Mono.error(new IllegalArgumentException("400")))
+                .onErrorResume(error -> Mono.empty())
+                .block(TIMEOUT);
+
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void oneWaveOfErrorsDecreasesLimitOnce() {
+        AimdLimiter limiter = limiter(8);
+        Sinks.One<Integer> first = Sinks.one();
+        Sinks.One<Integer> second = Sinks.one();
+
+        Disposable a = limiter.run(first.asMono()).subscribe(v -> { }, e -> { });
+        Disposable b = limiter.run(second.asMono()).subscribe(v -> { }, e -> { });
+        first.tryEmitError(new IllegalStateException("503"));
+        second.tryEmitError(new IllegalStateException("503"));
+
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+        a.dispose();
+        b.dispose();
+    }
+
+    @Test
+    void latencyIsMeasuredFromLastAttempt() {
+        AimdLimiter limiter = new AimdLimiter(8, 1, 8, 0.5, 2.0, error -> false);
+        for (int i = 0; i < 5; i++) {
+            limiter.run(Mono.just(i)).block(TIMEOUT);
+        }
+
+        // Ожидание перед повтором не считается задержкой ответа
+        for (int i = 0; i < 3; i++) {
+            limiter.run(Mono.delay(Duration.ofMillis(50))
+                            .then(Mono.deferContextual(context -> {
+                                context.get(AimdLimiter.Attempts.class).started();
+                                return Mono.just(1);
+                            })))
+                    .block(TIMEOUT);
+        }
+
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void singleSlowResponseKeepsLimit() {
+        AimdLimiter limiter = new AimdLimiter(8, 1, 8, 0.5, 2.0, error -> false);
+        for (int i = 0; i < 5; i++) {
+            limiter.run(Mono.just(i)).block(TIMEOUT);
+        }
+
+        limiter.run(Mono.delay(Duration.ofMillis(50)).thenReturn(1)).block(TIMEOUT);
+
+        assertEquals(8, limiter.getLimit());
+    }
+
+    @Test
+    void sustainedSlowResponsesDecreaseLimit() {
+        AimdLimiter limiter = new AimdLimiter(8, 1, 8, 0.5, 2.0, error -> false);
+        for (int i = 0; i < 5; i++) {
+            limiter.run(Mono.just(i)).block(TIMEOUT);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            limiter.run(Mono.delay(Duration.ofMillis(50)).thenReturn(1)).block(TIMEOUT);
+        }
+
+        assertEquals(4, limiter.getLimit());
+    }
+
+    /**
+     * Задержка выросла и осталась на новом уровне: средняя догоняет её,
+     * лимит снижается конечное число раз и снова растёт, а не падает до min-limit
+     */
+    @Test
+    void latencyStepChangeBecomesNewBaseline() {
+        AimdLimiter limiter = new AimdLimiter(8, 1, 64, 0.5, 2.0, error -> false);
+        for (int i = 0; i < 5; i++) {
+            limiter.run(Mono.just(i)).block(TIMEOUT);
+        }
+
+        int lowest = Integer.MAX_VALUE;
+        for (int i = 0; i < 40; i++) {
+            limiter.run(Mono.delay(Duration.ofMillis(20)).thenReturn(i)).block(TIMEOUT);
+            lowest = Math.min(lowest, limiter.getLimit());
+        }
+
+        assertTrue(lowest > 1, "limit dropped to min-limit: " + lowest);
+        assertTrue(limiter.getLimit() > lowest, "limit did not recover: " + limiter.getLimit());
+    }
+
+    @Test
+    void cancelledWaiterDoesNotLeakSlot() {
+        AimdLimiter limiter = new AimdLimiter(1, 1, 1, 0.5, 100.0, error -> false);
+        Sinks.One<Integer> holder = Sinks.one();
+
+        Disposable running = limiter.run(holder.asMono()).subscribe();
+        Disposable waiting = limiter.run(Mono.just(1)).subscribe();
+        waiting.dispose();
+        holder.tryEmitValue(0);
+
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1, limiter.run(Mono.just(1)).block(TIMEOUT));
+        running.dispose();
+    }
+
+    /**
+     * Завершение запроса и отмена ожидающего блокируются на мониторе
+     * limiter'а и отпускаются одновременно, поэтому порядок выдачи слота
+     * и отмены меняется от итерации к итерации
+     */
+    @Test
+    void cancelRacingWithReleaseDoesNotLeakSlot() throws Exception {
+        // Лимит закреплён на 1: ожидающий всегда стоит в очереди
+        AimdLimiter limiter = new AimdLimiter(1, 1, 1, 0.5, 100.0, error -> false);
+
+        for (int i = 0; i < 200; i++) {
+            Sinks.One<Integer> holder = Sinks.one();
+            limiter.run(holder.asMono()).subscribe();
+            Disposable waiting = limiter.run(Mono.just(i)).subscribe();
+
+            Thread releaser = new Thread(() -> holder.tryEmitValue(0));
+            Thread canceller = new Thread(waiting::dispose);
+            synchronized (limiter) {
+                // Порядок входа в монитор чередуется между итерациями
+                Thread firstIn = i % 2 == 0 ? releaser : canceller;
+                Thread secondIn = i % 2 == 0 ? canceller : releaser;
+                firstIn.start();
+                awaitBlocked(firstIn);
+                secondIn.start();
+                awaitBlocked(secondIn);
+            }
+            releaser.join();
+            canceller.join();
+
+            assertEquals(0, limiter.getInFlight(), "iteration " + i);
+        }
+        assertEquals(1, limiter.run(Mono.just(1)).block(TIMEOUT));
+    }
+
+    private static void awaitBlocked(Thread thread) throws InterruptedException {
+        long deadline = System.nanoTime() + TIMEOUT.toNanos();
+        while (thread.getState() != Thread.State.BLOCKED && thread.isAlive()) {
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException(thread + " is not blocked on the limiter");
+            }
+            Thread.sleep(1);
+        }
+    }
+}
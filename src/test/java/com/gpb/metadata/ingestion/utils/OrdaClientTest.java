@@ -0,0 +1,79 @@
+package com.gpb.metadata.ingestion.utils;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.gpb.metadata.ingestion.config.KeycloakConfig;
+import com.gpb.metadata.ingestion.log.SvoiCustomLogger;
+import com.gpb.metadata.ingestion.properties.WebClientProperties;
+import com.gpb.metadata.ingestion.service.OrdaTokenProvider;
+
+import reactor.core.publisher.Mono;
+
+class OrdaClientTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final ConcurrentLinkedQueue<HttpStatus> responses = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger requests = new AtomicInteger();
+
+    private OrdaClient client() {
+        WebClient webClient = WebClient.builder()
+                .exchangeFunction(request -> {
+                    requests.incrementAndGet();
+                    HttpStatus status = responses.poll();
+                    return Mono.just(ClientResponse.create(status == null ? HttpStatus.OK : status).build());
+                })
+                .build();
+
+        WebClientProperties properties = new WebClientProperties();
+        properties.getRetry().setMinBackoff(Duration.ofMillis(1));
+        properties.getRetry().setMaxBackoff(Duration.ofMillis(1));
+
+        OrdaTokenProvider tokenProvider = mock(OrdaTokenProvider.class);
+        when(tokenProvider.getToken()).thenReturn("token");
+
+        return new OrdaClient(mock(SvoiCustomLogger.class), webClient, properties,
+                new KeycloakConfig(), tokenProvider, new ObjectMapper());
+    }
+
+    @Test
+    void overloadFixedByRetryDecreasesLimit() {
+        OrdaClient client = client();
+        AimdLimiter limiter = new AimdLimiter(8, 1, 64, 0.5, 100.0, OrdaConcurrencyLimiter::isOverload);
+        responses.addAll(List.of(HttpStatus.TOO_MANY_REQUESTS, HttpStatus.OK));
+
+        limiter.run(client.deleteRequest("/tables/name/t", false)).block(TIMEOUT);
+
+        assertEquals(2, requests.get());
+        // 8 * 0.5 = 4 после 429, затем +1/4 за успешный повтор
+        assertEquals(4, limiter.getLimit());
+        assertEquals(0, limiter.getInFlight());
+    }
+
+    @Test
+    void successWithoutRetryIncreasesLimit() {
+        OrdaClient client = client();
+        AimdLimiter limiter = new AimdLimiter(1, 1, 64, 0.5, 100.0, OrdaConcurrencyLimiter::isOverload);
+
+        for (int i = 0; i < 3; i++) {
+            limiter.run(client.deleteRequest("/tables/name/t", false)).block(TIMEOUT);
+        }
+
+        assertEquals(3, requests.get());
+        assertTrue(limiter.getLimit() > 1);
+    }
+}